@@ -0,0 +1,17 @@
+package com.expensetracker.app.config;
+
+import java.security.Principal;
+
+/**
+ * The principal of a request authenticated with a JWT: the user's ID and username, both
+ * taken from the verified token, so no query is needed to know who is calling.
+ * Controllers take it with {@code @AuthenticationPrincipal AuthenticatedUser user};
+ * {@code Authentication.getName()} and {@code Principal.getName()} still return the username.
+ */
+public record AuthenticatedUser(Long id, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
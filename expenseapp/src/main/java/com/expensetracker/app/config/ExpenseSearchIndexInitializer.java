@@ -0,0 +1,52 @@
+package com.expensetracker.app.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the trigram indexes behind the personal expense search on PostgreSQL.
+ *
+ * The search matches LOWER(title) and LOWER(description) with LIKE '%keyword%', which a
+ * B-tree cannot serve; GIN indexes with gin_trgm_ops on exactly those expressions can.
+ * JPA cannot declare them, so they are created here, concurrently, so that a first run on
+ * a large table does not block writes. Other databases (H2 in tests) are left alone, and a
+ * missing pg_trgm permission only costs the index, not the search.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpenseSearchIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_personal_expenses_title_trgm " +
+                    "ON personal_expenses USING gin (lower(title) gin_trgm_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_personal_expenses_description_trgm " +
+                    "ON personal_expenses USING gin (lower(description) gin_trgm_ops)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        for (String statement : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException e) {
+                log.warn("Could not prepare the expense search index ({}): {}", statement, e.getMessage());
+                return;
+            }
+        }
+    }
+}
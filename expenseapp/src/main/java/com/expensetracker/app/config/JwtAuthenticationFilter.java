@@ -1,6 +1,6 @@
 package com.expensetracker.app.config;
 
-import com.expensetracker.app.service.JwtUserDetailsService;
+import com.expensetracker.app.service.UserIdCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,11 +8,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,7 +21,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private JwtUserDetailsService userDetailsService;
+    private UserIdCache userIdCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -30,23 +30,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
 
         try {
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                jwt = authHeader.substring(7);
-                username = jwtUtil.getUsernameFromToken(jwt);
-                System.out.println("Extracted username from JWT: " + username);
-            }
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-                if (jwtUtil.validateToken(jwt)) {
+            if (authHeader != null && authHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // One signature check per distinct token, see JwtUtil.verify
+                JwtUtil.VerifiedToken token = jwtUtil.verify(authHeader.substring(7));
+                // The principal comes from the token alone; only tokens issued before the
+                // userId claim existed need the (cached) username lookup
+                Long userId = token.userId() != null
+                        ? token.userId()
+                        : userIdCache.findUserId(token.username()).orElse(null);
+
+                if (userId != null) {
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities()
+                                    new AuthenticatedUser(userId, token.username()), null, List.of()
                             );
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
@@ -1,7 +1,9 @@
 package com.expensetracker.app.config;
 
+import com.expensetracker.app.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -9,50 +11,158 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Issues and verifies the HS512 access tokens.
+ *
+ * The signing key and the parser are built once; both are immutable and shared by all
+ * requests. A verified token is remembered by its SHA-256 digest until it expires, so a
+ * client reusing its token costs one hash instead of a signature check and a JSON parse.
+ * The cache is bounded: when it is full, adding a token evicts the oldest one in O(1).
+ * Every token lives equally long, so the oldest is also the next to expire, and an evicted
+ * token only costs one more verification. Tokens without an expiry are rejected.
+ *
+ * Access tokens cannot be revoked (logout and refresh-token reuse only end the refresh token),
+ * so they live at most {@link #MAX_EXPIRATION_MS}; clients renew them with their refresh token.
+ */
+@Slf4j
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    /**
+     * Upper bound of the access token lifetime, whatever jwt.expirationMs says: 15 minutes.
+     */
+    public static final long MAX_EXPIRATION_MS = 15 * 60 * 1000L;
 
-    @Value("${jwt.expirationMs}")
-    private long jwtExpirationMs;
+    private static final String USER_ID_CLAIM = "userId";
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private final long jwtExpirationMs;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    private final Map<String, VerifiedToken> verifiedTokens;
+
+    public JwtUtil(@Value("${jwt.secret}") String jwtSecret,
+                   @Value("${jwt.expirationMs:" + MAX_EXPIRATION_MS + "}") long jwtExpirationMs,
+                   @Value("${jwt.verified-cache-size:10000}") int maxCachedTokens) {
+        if (jwtExpirationMs > MAX_EXPIRATION_MS) {
+            log.warn("jwt.expirationMs={} is longer than access tokens may live; using {}",
+                    jwtExpirationMs, MAX_EXPIRATION_MS);
+        }
+        this.jwtExpirationMs = Math.min(jwtExpirationMs, MAX_EXPIRATION_MS);
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        // Insertion order; guarded by synchronizing on the map
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
+    }
+
+    /**
+     * What a valid token says about its bearer. Immutable, so one instance serves every
+     * request made with the same token.
+     */
+    public record VerifiedToken(Long userId, String username, long expiresAtMillis) {
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        if (authentication.getPrincipal() instanceof User user) {
+            return generateToken(user.getId(), user.getUsername());
+        }
+        return generateToken(null, ((UserDetails) authentication.getPrincipal()).getUsername());
+    }
+
+    /**
+     * Issues a token for the user. The ID travels in the "userId" claim, so requests made
+     * with the token are authenticated without loading the user.
+     */
+    public String generateToken(Long userId, String username) {
         return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
-                .claim("username", userPrincipal.getUsername()) 
+                .setSubject(username)
+                .claim("username", username)
+                .claim(USER_ID_CLAIM, userId)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Checks the signature and expiry of the token, once per distinct token while it is valid.
+     *
+     * @throws JwtException if the token is malformed, tampered with, expired or has no expiry.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = cached(digest, System.currentTimeMillis());
+        if (cached != null) {
+            return cached;
+        }
+
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Claims claims = jws.getBody();
+        if (claims.getExpiration() == null) {
+            // Never issued by us, and it would be valid forever
+            throw new MissingClaimException(jws.getHeader(), claims, "JWT has no expiration.");
+        }
+        VerifiedToken verified = new VerifiedToken(claims.get(USER_ID_CLAIM, Long.class), claims.getSubject(),
+                claims.getExpiration().getTime());
+        synchronized (verifiedTokens) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).username();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+            verify(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+
+    int cachedTokenCount() {
+        synchronized (verifiedTokens) {
+            return verifiedTokens.size();
+        }
+    }
+
+    // The cached verification of the token, unless there is none or the token has expired since
+    private VerifiedToken cached(String digest, long now) {
+        synchronized (verifiedTokens) {
+            VerifiedToken cached = verifiedTokens.get(digest);
+            if (cached != null && now >= cached.expiresAtMillis()) {
+                verifiedTokens.remove(digest);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    // The cache holds digests, not the bearer tokens themselves
+    private static String digest(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT is empty.");
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
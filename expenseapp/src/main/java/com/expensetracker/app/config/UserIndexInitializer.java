@@ -0,0 +1,58 @@
+package com.expensetracker.app.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Gives users.username_normalized the "C" collation on PostgreSQL.
+ *
+ * The member listing filters on username_normalized LIKE 'prefix%' and pages in
+ * (username_normalized, id) order. Under a linguistic collation (en_US, ICU) the B-tree from
+ * the entity (idx_users_username_normalized) serves the ordering but not the LIKE, and an extra
+ * text_pattern_ops index serves the LIKE but not the ordering, so short prefixes still walked the
+ * whole index. The column only ever holds the lower-cased key, for which byte order is fine;
+ * under "C" the one B-tree serves the prefix, the ordering and the cursor. JPA cannot declare a
+ * column collation, so it is set here, once (the ALTER rebuilds the column's indexes under a
+ * table lock). Other databases (H2 in tests) are left alone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIndexInitializer implements ApplicationRunner {
+
+    private static final String CURRENT_COLLATION =
+            "SELECT collation_name FROM information_schema.columns " +
+            "WHERE table_schema = current_schema() AND table_name = 'users' AND column_name = 'username_normalized'";
+
+    private static final List<String> STATEMENTS = List.of(
+            "ALTER TABLE users ALTER COLUMN username_normalized TYPE varchar(255) COLLATE \"C\"");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            return;
+        }
+        try {
+            List<String> collation = jdbcTemplate.queryForList(CURRENT_COLLATION, String.class);
+            if (collation.isEmpty() || "C".equals(collation.get(0))) {
+                return;
+            }
+            for (String statement : STATEMENTS) {
+                jdbcTemplate.execute(statement);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not prepare the username index: {}", e.getMessage());
+        }
+    }
+}
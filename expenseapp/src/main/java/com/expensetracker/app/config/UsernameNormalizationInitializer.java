@@ -0,0 +1,46 @@
+package com.expensetracker.app.config;
+
+import com.expensetracker.app.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fills users.username_normalized and users.username_key for accounts created before the columns
+ * were added. New and updated users get them from the entity, so after the first run this updates nothing.
+ *
+ * username_key is unique. Of the legacy accounts whose usernames differ only in case, the oldest
+ * gets the key; the others keep a null key and are logged, so they can be renamed by hand.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UsernameNormalizationInitializer implements ApplicationRunner {
+
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        int updated = userRepository.backfillNormalizedUsernames();
+        if (updated > 0) {
+            log.info("Normalized the username of {} existing users", updated);
+        }
+
+        int keyed = userRepository.backfillUsernameKeys();
+        if (keyed > 0) {
+            log.info("Reserved the normalized username of {} existing users", keyed);
+        }
+        List<Object[]> duplicates = userRepository.findUsersWithoutUsernameKey();
+        if (!duplicates.isEmpty()) {
+            log.warn("{} users share their username with an older account apart from case: {}", duplicates.size(),
+                    duplicates.stream().map(row -> row[1] + " (id " + row[0] + ")").collect(Collectors.joining(", ")));
+        }
+    }
+}
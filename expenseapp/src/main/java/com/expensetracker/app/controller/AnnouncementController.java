@@ -2,7 +2,9 @@ package com.expensetracker.app.controller;
 
 import com.expensetracker.app.dto.GroupAnnouncementRequest;
 import com.expensetracker.app.dto.GroupAnnouncementResponse;
+import com.expensetracker.app.exception.IdempotencyConflictException;
 import com.expensetracker.app.service.AnnouncementService;
+import com.expensetracker.app.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,32 +21,45 @@ import java.util.List;
 public class AnnouncementController {
 
     private final AnnouncementService announcementService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * POST /api/groups/{groupId}/announcements
      * Creates a new announcement for the specified group.
      * Authorization: Only existing group members can create announcements.
+     * With an Idempotency-Key header, retries of the same request replay the first response.
      * * @param groupId The ID of the group.
      * @param request The announcement data (title, description).
+     * @param idempotencyKey Optional client-generated key identifying this announcement.
      * @param authentication The Spring Security Authentication object (contains the requesting user's username).
      * @return The created announcement response DTO.
      */
     @PostMapping
-    public ResponseEntity<GroupAnnouncementResponse> createAnnouncement(
+    public ResponseEntity<?> createAnnouncement(
             @PathVariable Long groupId,
             @Valid @RequestBody GroupAnnouncementRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
 
         // Get the username from the JWT token provided by Spring Security
         String requestingUsername = authentication.getName();
 
         try {
+            if (idempotencyKey != null) {
+                return idempotencyService.execute("announcement:" + groupId, requestingUsername, idempotencyKey,
+                        request, HttpStatus.CREATED,
+                        () -> announcementService.createAnnouncement(groupId, requestingUsername, request))
+                        .toResponseEntity();
+            }
+
             GroupAnnouncementResponse response = announcementService.createAnnouncement(
                     groupId,
                     requestingUsername,
                     request
             );
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (AccessDeniedException e) {
             // This handles the error thrown by the service if the user is not a member.
             // It translates the exception into a 403 Forbidden response.
@@ -4,23 +4,29 @@ import com.expensetracker.app.entity.User;
 import com.expensetracker.app.dto.*;
 import com.expensetracker.app.repository.UserRepository;
 import com.expensetracker.app.config.JwtUtil;
+import com.expensetracker.app.exception.InvalidRefreshTokenException;
+import com.expensetracker.app.exception.ServiceBusyException;
+import com.expensetracker.app.service.PasswordHashingService;
+import com.expensetracker.app.service.RefreshTokenService;
+import com.expensetracker.app.service.UserIdCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
 import org.springframework.security.authentication.*;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController 
 {
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -28,57 +34,123 @@ public class AuthController
     private JwtUtil jwtUtil;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    // Runs what follows BCrypt (database writes, token signing), so the hashing pool only ever hashes
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor applicationTaskExecutor;
 
+    // BCrypt runs on the hashing pool and the save on the application executor; the request
+    // thread is released while they run
     @PostMapping(value = "/signup", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> registerUser(@RequestBody SignupRequest signUpRequest) 
+    public CompletableFuture<ResponseEntity<String>> registerUser(@RequestBody SignupRequest signUpRequest) 
     {
         // Your existing, successful signup logic
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) 
+        if (userRepository.existsByUsernameNormalized(User.normalizeUsername(signUpRequest.getUsername()))) 
         {
-            return ResponseEntity.badRequest().body("Username is already taken!");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username is already taken!"));
         }
         if (userRepository.existsByEmail(signUpRequest.getEmail())) 
         {
-            return ResponseEntity.badRequest().body("Email is already in use!");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email is already in use!"));
         }
 
-        User user = User.builder()
-                .username(signUpRequest.getUsername())
-                .email(signUpRequest.getEmail())
-                .password(passwordEncoder.encode(signUpRequest.getPassword()))
-                .build();
-        userRepository.save(user);
-        
-        // Return explicit 201 Created status for resource creation
-        return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully!");
+        return passwordHashingService.encode(signUpRequest.getPassword())
+                .thenApplyAsync(passwordHash -> {
+                    User user = User.builder()
+                            .username(signUpRequest.getUsername())
+                            .email(signUpRequest.getEmail())
+                            .password(passwordHash)
+                            .build();
+                    userRepository.save(user);
+                    userIdCache.put(user.getUsername(), user.getId());
+
+                    // Return explicit 201 Created status for resource creation
+                    return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully!");
+                }, applicationTaskExecutor)
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof ServiceBusyException busy) {
+                        return busy(busy.getMessage());
+                    }
+                    if (cause instanceof DataIntegrityViolationException) {
+                        // A concurrent signup took the username or email after the checks above
+                        return ResponseEntity.badRequest().body("Username or email is already taken!");
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body("An unexpected error occurred");
+                });
     }
 
+    // The credential check (user lookup + BCrypt) runs on the hashing pool, the tokens are
+    // issued on the application executor
     @PostMapping(value = "/login", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
-        try {
-            // *** CRITICAL STEP: Authenticates credentials using DaoAuthenticationProvider ***
-            Authentication authentication = authenticationManager.authenticate(
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody LoginRequest loginRequest) {
+        return passwordHashingService.authenticate(
                 new UsernamePasswordAuthenticationToken(
                     loginRequest.getUsername(),
                     loginRequest.getPassword()
-                )
-            );
-            
-            // If successful, generate token
-            String token = jwtUtil.generateToken(authentication);
+                ))
+                .<ResponseEntity<?>>thenApplyAsync(authentication -> {
+                    // If successful, generate token
+                    String token = jwtUtil.generateToken(authentication);
+                    String refreshToken = refreshTokenService.issue((User) authentication.getPrincipal());
 
-            return ResponseEntity.ok(new JwtResponse(token));
+                    return ResponseEntity.ok(new JwtResponse(token, refreshToken));
+                }, applicationTaskExecutor)
+                .exceptionally(e -> {
+                    Throwable cause = unwrap(e);
+                    if (cause instanceof BadCredentialsException) {
+                        // *** CRITICAL RESPONSE: Thrown if passwords don't match ***
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body("Invalid username or password");
+                    }
+                    if (cause instanceof ServiceBusyException busy) {
+                        return busy(Map.of("error", busy.getMessage()));
+                    }
+                    // Catch any other exceptions and return cleanly
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(Map.of("error", "An unexpected error occurred"));
+                });
+    }
 
-        } catch (BadCredentialsException e) {
-            // *** CRITICAL RESPONSE: Thrown if passwords don't match ***
+    // Issues a new token pair for a refresh token; no password check involved
+    @PostMapping(value = "/refresh", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+            String token = jwtUtil.generateToken(rotation.userId(), rotation.username());
+            return ResponseEntity.ok(new JwtResponse(token, rotation.refreshToken()));
+        } catch (InvalidRefreshTokenException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body("Invalid username or password");
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/logout", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> logout(@RequestBody RefreshTokenRequest request) {
+        try {
+            refreshTokenService.revoke(request.getRefreshToken());
+        } catch (InvalidRefreshTokenException e) {
+            // Nothing to revoke
         }
-        catch (Exception e) {
-        // Catch any other exceptions and return cleanly
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Map.of("error", "An unexpected error occurred"));
+        return ResponseEntity.noContent().build();
+    }
+
+    private <T> ResponseEntity<T> busy(T body) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body(body);
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
     }
 }
-}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.expensetracker.app.controller;
+
+import com.expensetracker.app.dto.BatchAddExpenseRequest;
+import com.expensetracker.app.dto.BatchExpenseResponse;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.service.ExpenseBatchService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}")
+@RequiredArgsConstructor
+public class ExpenseBatchController {
+
+    private final ExpenseBatchService expenseBatchService;
+
+    /**
+     * POST /api/groups/{groupId}/expenses:batch
+     * Imports up to 500 expenses at once. Each item is validated on its own; the
+     * response lists the created expense id or the error message for every item.
+     * Authorization: only group members can import expenses.
+     */
+    @PostMapping("/expenses:batch")
+    public ResponseEntity<?> addExpenses(
+            @PathVariable Long groupId,
+            @Valid @RequestBody BatchAddExpenseRequest request,
+            Principal principal) {
+
+        if (principal == null || principal.getName() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User authentication context is missing.");
+        }
+
+        try {
+            BatchExpenseResponse response = expenseBatchService.createExpenses(
+                    groupId, request.getExpenses(), principal.getName());
+            return ResponseEntity.ok(response);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An internal error occurred while importing the expenses: " + e.getMessage());
+        }
+    }
+}
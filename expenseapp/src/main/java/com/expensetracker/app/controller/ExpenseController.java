@@ -1,17 +1,29 @@
 package com.expensetracker.app.controller;
 
 import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.CursorPageResponse;
 import com.expensetracker.app.dto.ExpenseResponse;
+import com.expensetracker.app.service.ExpenseExportService;
 import com.expensetracker.app.service.ExpenseService;
+import com.expensetracker.app.service.IdempotencyService;
+import com.expensetracker.app.exception.IdempotencyConflictException;
+import com.expensetracker.app.exception.PreconditionFailedException;
 import com.expensetracker.app.exception.ResourceNotFoundException;
 import com.expensetracker.app.exception.ValidationException;
 import com.expensetracker.app.entity.Expense;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+
 import java.util.List;
 import java.util.stream.Collectors;
 import java.security.Principal;
@@ -22,17 +34,27 @@ import org.springframework.security.access.AccessDeniedException;
 @RequestMapping("/api/groups/{groupId}/expenses")
 public class ExpenseController {
 
+    // Let the browser keep a private copy but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ExpenseService expenseService;
+    private final ExpenseExportService expenseExportService;
+    private final IdempotencyService idempotencyService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseExportService expenseExportService,
+                             IdempotencyService idempotencyService) {
         this.expenseService = expenseService;
+        this.expenseExportService = expenseExportService;
+        this.idempotencyService = idempotencyService;
     }
 
     // --- Endpoint 1: Add New Expense (POST) ---
+    // With an Idempotency-Key header, retries of the same request replay the first response.
     @PostMapping
     public ResponseEntity<?> addExpense(
             @PathVariable Long groupId,
             @Valid @RequestBody AddExpenseRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             Principal principal) {
 
         if (principal == null || principal.getName() == null) {
@@ -43,10 +65,19 @@ public class ExpenseController {
         System.out.println("DEBUG: Current User (from Principal): " + currentUsername);
         
         try {
+            if (idempotencyKey != null) {
+                return idempotencyService.execute("group-expense:" + groupId, currentUsername, idempotencyKey,
+                        request, HttpStatus.CREATED,
+                        () -> convertToExpenseResponse(expenseService.createExpense(groupId, request, currentUsername)))
+                        .toResponseEntity();
+            }
+
             Expense createdExpense = expenseService.createExpense(groupId, request, currentUsername);
             ExpenseResponse response = convertToExpenseResponse(createdExpense);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
 
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (ResourceNotFoundException e) {
@@ -59,34 +90,84 @@ public class ExpenseController {
         }
     }
 
-    // --- Endpoint 2: Get All Expenses for a Group (GET) ---
+    // --- Endpoint 2: Get a Page of Expenses for a Group (GET) ---
+    // Keyset pagination: pass back 'nextCursor' from the previous page to load older expenses.
     @GetMapping
-    public ResponseEntity<List<ExpenseResponse>> getGroupExpenses(
+    public ResponseEntity<?> getGroupExpenses(
             @PathVariable Long groupId,
-            Principal principal) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ExpenseService.DEFAULT_PAGE_SIZE) int size,
+            Principal principal,
+            WebRequest webRequest) {
         
         if (principal == null || principal.getName() == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
         }
         
-        String currentUsername = principal.getName();
         try {
-            List<Expense> expenses = expenseService.getExpensesByGroupId(groupId);
-            List<ExpenseResponse> responseList = expenses.stream()
-                    .map(this::convertToExpenseResponse)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(responseList);
+            // Revalidation only reads (id, version) of the page rows
+            if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && webRequest.checkNotModified(pageEtag(expenseService.getExpensesPageEtag(groupId, cursor, size, principal.getName())))) {
+                return null; // 304 Not Modified
+            }
+
+            CursorPageResponse<Expense> expenses = expenseService.getExpensesPage(groupId, cursor, size, principal.getName());
+            CursorPageResponse<ExpenseResponse> page = expenses.map(this::convertToExpenseResponse);
+            return ResponseEntity.ok()
+                    .eTag(pageEtag(expenseService.getExpensesPageEtag(expenses)))
+                    .cacheControl(REVALIDATE)
+                    .body(page);
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (ResourceNotFoundException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
     }
 
+    // --- Endpoint 2b: Export All Expenses of a Group (GET, streamed CSV / NDJSON) ---
+    @GetMapping("/export")
+    public void exportGroupExpenses(
+            @PathVariable Long groupId,
+            @RequestParam(defaultValue = "csv") String format,
+            Principal principal,
+            HttpServletResponse response) throws IOException {
+
+        if (principal == null || principal.getName() == null) {
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "User authentication context is missing.");
+            return;
+        }
+
+        ExpenseExportService.ExportFormat exportFormat;
+        try {
+            exportFormat = ExpenseExportService.ExportFormat.fromParam(format);
+            expenseExportService.checkExportAllowed(groupId, principal.getName());
+        } catch (ValidationException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        } catch (AccessDeniedException e) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), e.getMessage());
+            return;
+        } catch (ResourceNotFoundException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        }
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"group-" + groupId + "-expenses." + exportFormat.getFileExtension() + "\"");
+        expenseExportService.export(groupId, exportFormat, response.getOutputStream());
+    }
+
     // --- Endpoint 3: Update Existing Expense (PUT) ---
     @PutMapping("/{expenseId}")
     public ResponseEntity<?> updateExpense(
             @PathVariable Long groupId,
             @PathVariable Long expenseId,
             @Valid @RequestBody AddExpenseRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Principal principal) {
 
         if (principal == null || principal.getName() == null) {
@@ -97,10 +178,14 @@ public class ExpenseController {
         System.out.println("DEBUG: Updating expense - Current User: " + currentUsername);
 
         try {
-            Expense updatedExpense = expenseService.updateExpense(groupId, expenseId, request, currentUsername);
+            Expense updatedExpense = expenseService.updateExpense(groupId, expenseId, request, currentUsername,
+                    parseIfMatch(ifMatch));
             ExpenseResponse response = convertToExpenseResponse(updatedExpense);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(expenseEtag(updatedExpense.getVersion())).body(response);
 
+        } catch (PreconditionFailedException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body("The expense was modified by someone else. Reload it and try again.");
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         } catch (ResourceNotFoundException e) {
@@ -118,7 +203,8 @@ public class ExpenseController {
     public ResponseEntity<?> getExpenseById(
             @PathVariable Long groupId,
             @PathVariable Long expenseId,
-            Principal principal) {
+            Principal principal,
+            WebRequest webRequest) {
 
         if (principal == null || principal.getName() == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User authentication context is missing.");
@@ -129,6 +215,13 @@ public class ExpenseController {
         System.out.println("DEBUG: Current User: " + currentUsername);
 
         try {
+            // Revalidation only reads the version column, the splits are not loaded
+            if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && webRequest.checkNotModified(expenseEtag(
+                            expenseService.getExpenseVersion(groupId, expenseId, currentUsername)))) {
+                return null; // 304 Not Modified
+            }
+
             Expense expense = expenseService.getExpenseById(groupId, expenseId, currentUsername);
             
             // Force initialization of splits to avoid LazyInitializationException
@@ -138,7 +231,10 @@ public class ExpenseController {
             }
             
             ExpenseResponse response = convertToExpenseResponse(expense);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .eTag(expenseEtag(expense.getVersion()))
+                    .cacheControl(REVALIDATE)
+                    .body(response);
 
         } catch (AccessDeniedException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
@@ -152,6 +248,39 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * Strong ETag of a single expense: its optimistic lock version.
+     */
+    private static String expenseEtag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak ETag of a page of expenses (a digest of the versions on the page).
+     */
+    private static String pageEtag(String digest) {
+        return "W/\"" + digest + "\"";
+    }
+
+    /**
+     * Extracts the expected version from an If-Match header (null when absent or "*").
+     * A tag that is not one of our strong version ETags can never match, so it maps to -1.
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
     /**
      * Helper method to convert the JPA Entity to the API Response DTO.
      */
@@ -170,6 +299,7 @@ public class ExpenseController {
                 expense.getDescription(),
                 expense.getPaidByUsername(),
                 expense.getCreatedAt(),
-                splitDetails);
+                splitDetails,
+                expense.getVersion());
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.expensetracker.app.controller;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.GroupActivityResponse;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
+import com.expensetracker.app.service.GroupActivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/activity")
+@RequiredArgsConstructor
+public class GroupActivityController {
+
+    private final GroupActivityService groupActivityService;
+
+    /**
+     * GET /api/groups/{groupId}/activity?cursor=&limit=
+     * Returns the group's expenses and announcements merged into one feed, newest first.
+     * Pass back 'nextCursor' from the previous page to load older activity.
+     * Authorization: only group members can view the feed.
+     */
+    @GetMapping
+    public ResponseEntity<?> getActivity(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GroupActivityService.DEFAULT_LIMIT) int limit,
+            Principal principal) {
+
+        if (principal == null || principal.getName() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User authentication context is missing.");
+        }
+
+        try {
+            CursorPageResponse<GroupActivityResponse> page =
+                    groupActivityService.getActivity(groupId, cursor, limit, principal.getName());
+            return ResponseEntity.ok(page);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (ValidationException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
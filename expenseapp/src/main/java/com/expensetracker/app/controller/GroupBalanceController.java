@@ -0,0 +1,64 @@
+package com.expensetracker.app.controller;
+
+import com.expensetracker.app.dto.MemberBalanceResponse;
+import com.expensetracker.app.dto.SettlementTransferResponse;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.service.GroupBalanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}")
+@RequiredArgsConstructor
+public class GroupBalanceController {
+
+    private final GroupBalanceService groupBalanceService;
+
+    /**
+     * GET /api/groups/{groupId}/balances
+     * Returns the net balance of each member, read from the materialized ledger.
+     * Authorization: only group members can view balances.
+     */
+    @GetMapping("/balances")
+    public ResponseEntity<?> getBalances(@PathVariable Long groupId, Principal principal) {
+        if (principal == null || principal.getName() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User authentication context is missing.");
+        }
+
+        try {
+            List<MemberBalanceResponse> balances = groupBalanceService.getBalances(groupId, principal.getName());
+            return ResponseEntity.ok(balances);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/groups/{groupId}/settlement-plan
+     * Returns at most (members - 1) "A pays B" transfers that settle every member's balance.
+     * Authorization: only group members can view the plan.
+     */
+    @GetMapping("/settlement-plan")
+    public ResponseEntity<?> getSettlementPlan(@PathVariable Long groupId, Principal principal) {
+        if (principal == null || principal.getName() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User authentication context is missing.");
+        }
+
+        try {
+            List<SettlementTransferResponse> plan = groupBalanceService.getSettlementPlan(groupId, principal.getName());
+            return ResponseEntity.ok(plan);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
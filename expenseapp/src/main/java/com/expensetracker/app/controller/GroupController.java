@@ -1,17 +1,18 @@
 package com.expensetracker.app.controller;
 
 import com.expensetracker.app.dto.*;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.service.GroupListingService;
 import com.expensetracker.app.service.GroupService;
 
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/groups")
 public class GroupController {
@@ -33,12 +34,18 @@ public class GroupController {
         }
     }
 
-    // Get all groups for logged-in user
+    // Get the logged-in user's groups, one page at a time
     @GetMapping
-    public ResponseEntity<?> getUserGroups(Authentication authentication) {
+    public ResponseEntity<?> getUserGroups(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GroupListingService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "" + GroupListingService.DEFAULT_MEMBER_PREVIEW) int members,
+            Authentication authentication) {
         try {
             String username = authentication.getName();
-            List<GroupResponse> groups = groupService.getUserGroups(username);
+            CursorPageResponse<GroupResponse> groups = groupService.getUserGroups(
+                    username, cursor, size, GroupListingService.GroupSort.from(sort), members);
             return ResponseEntity.ok(groups);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -66,6 +73,64 @@ public class GroupController {
         }
     }
 
+    // List the members of a group, one page at a time, optionally filtered by username prefix
+    @GetMapping("/{groupId}/members")
+    public ResponseEntity<?> getGroupMembers(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GroupService.DEFAULT_MEMBER_PAGE_SIZE) int size,
+            @RequestParam(required = false) String prefix,
+            Authentication authentication) {
+        try {
+            String username = authentication.getName();
+            CursorPageResponse<String> members = groupService.getMembers(groupId, cursor, size, prefix, username);
+            return ResponseEntity.ok(members);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Add many members at once; returns who was added, who already was a member and who was not found
+    @PostMapping("/{groupId}/members:batch")
+    public ResponseEntity<?> addMembers(
+            @PathVariable Long groupId,
+            @Valid @RequestBody GroupMembersBatchRequest request,
+            Authentication authentication) {
+        try {
+            String requestingUsername = authentication.getName();
+            return ResponseEntity.ok(groupService.addMembers(groupId, request.getUsernames(), requestingUsername));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Remove many members at once (the creator removes anyone, other members only themselves);
+    // returns who was removed, who was not a member and who was not found
+    @PostMapping("/{groupId}/members:batchDelete")
+    public ResponseEntity<?> removeMembers(
+            @PathVariable Long groupId,
+            @Valid @RequestBody GroupMembersBatchRequest request,
+            Authentication authentication) {
+        try {
+            String requestingUsername = authentication.getName();
+            return ResponseEntity.ok(groupService.removeMembers(groupId, request.getUsernames(), requestingUsername));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // Add a member to existing group (optional feature)
     @PostMapping("/{groupId}/members")
     public ResponseEntity<?> addMemberToGroup(
@@ -0,0 +1,44 @@
+package com.expensetracker.app.controller;
+
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.service.GroupEventService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/events")
+@RequiredArgsConstructor
+public class GroupEventController {
+
+    private final GroupEventService groupEventService;
+
+    /**
+     * GET /api/groups/{groupId}/events
+     * Server-Sent Events stream of the group. Each event is named after what happened
+     * (EXPENSE_CREATED, EXPENSE_UPDATED, ANNOUNCEMENT_CREATED) and carries the activity
+     * entry as JSON. The stream may be closed by the server at any time (timeout, slow
+     * consumer); clients should reconnect and reload the data they display.
+     * Authorization: only group members can subscribe.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable Long groupId, Principal principal) {
+        if (principal == null || principal.getName() == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            return ResponseEntity.ok(groupEventService.subscribe(groupId, principal.getName()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+}
@@ -1,16 +1,19 @@
 package com.expensetracker.app.controller;
 
+import com.expensetracker.app.dto.CursorPageResponse;
 import com.expensetracker.app.dto.GroupResponse;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
 import com.expensetracker.app.service.GroupListingService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/my-groups") // Unique endpoint for listing
 public class GroupListingController {
@@ -19,16 +22,28 @@ public class GroupListingController {
     private GroupListingService groupListingService;
 
     /**
-     * Endpoint: GET /api/my-groups
-     * Retrieves all groups the currently authenticated user belongs to.
+     * Endpoint: GET /api/my-groups?cursor=&size=&sort=name|createdAt&members=
+     * Retrieves one page of the groups the currently authenticated user belongs to,
+     * each with its member count and the first 'members' usernames.
      */
     @GetMapping
-    public ResponseEntity<List<GroupResponse>> getGroupsForCurrentUser(Authentication authentication) {
+    public ResponseEntity<?> getGroupsForCurrentUser(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GroupListingService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "" + GroupListingService.DEFAULT_MEMBER_PREVIEW) int members,
+            Authentication authentication) {
         // Get the username from the Spring Security context
         String username = authentication.getName();
-        
-        List<GroupResponse> groups = groupListingService.getUserGroups(username);
-        
-        return ResponseEntity.ok(groups);
+
+        try {
+            CursorPageResponse<GroupResponse> groups = groupListingService.getUserGroups(
+                    username, cursor, size, GroupListingService.GroupSort.from(sort), members);
+            return ResponseEntity.ok(groups);
+        } catch (ValidationException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,17 @@
 package com.expensetracker.app.controller;
 
+import com.expensetracker.app.config.AuthenticatedUser;
 import com.expensetracker.app.dto.*;
 import com.expensetracker.app.entity.PersonalExpense;
+import com.expensetracker.app.exception.IdempotencyConflictException;
+import com.expensetracker.app.service.IdempotencyService;
 import com.expensetracker.app.service.PersonalExpenseService;
-import com.expensetracker.app.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
@@ -21,14 +24,17 @@ import java.util.List;
 public class PersonalExpenseController {
 
     private final PersonalExpenseService expenseService;
-    private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
+    // Listings are paginated newest first; pass back 'nextCursor' to get the following page
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllExpenses(Authentication authentication) {
+    public ResponseEntity<ApiResponse> getAllExpenses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonalExpenseService.DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
-            List<PersonalExpenseDTO> expenses = expenseService.getAllExpensesByUserId(userId);
+            Long userId = user.id();
+            CursorPageResponse<PersonalExpenseDTO> expenses = expenseService.getExpensesPage(userId, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Expenses retrieved successfully", expenses));
         } catch (Exception e) {
             log.error("Error getting all expenses: ", e);
@@ -39,10 +45,9 @@ public class PersonalExpenseController {
     @GetMapping("/{expenseId}")
     public ResponseEntity<ApiResponse> getExpenseById(
             @PathVariable Long expenseId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
+            Long userId = user.id();
             PersonalExpenseDTO expense = expenseService.getExpenseById(expenseId, userId);
             return ResponseEntity.ok(new ApiResponse(true, "Expense retrieved successfully", expense));
         } catch (Exception e) {
@@ -51,16 +56,16 @@ public class PersonalExpenseController {
         }
     }
 
+    // With an Idempotency-Key header, retries of the same request replay the first response.
     @PostMapping
-    public ResponseEntity<ApiResponse> createExpense(
+    public ResponseEntity<?> createExpense(
             @RequestBody CreatePersonalExpenseRequestDTO request,
-            Authentication authentication) {
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            log.info("Creating expense for user: {}", username);
-            
-            Long userId = userService.findUserIdByUsername(username);
-            log.info("Found user ID: {} for username: {}", userId, username);
+            String username = user.username();
+            Long userId = user.id();
+            log.info("Creating expense for user: {} ({})", username, userId);
 
             PersonalExpense expense = PersonalExpense.builder()
                     .title(request.getTitle())
@@ -79,10 +84,19 @@ public class PersonalExpenseController {
 
             log.info("Expense object created: {}", expense);
             
+            if (idempotencyKey != null) {
+                return idempotencyService.execute("personal-expense", username, idempotencyKey, request, HttpStatus.OK,
+                        () -> new ApiResponse(true, "Expense created successfully",
+                                expenseService.createExpense(expense, userId)))
+                        .toResponseEntity();
+            }
+
             PersonalExpenseDTO savedExpense = expenseService.createExpense(expense, userId);
             log.info("Expense saved successfully with ID: {}", savedExpense.getId());
             
             return ResponseEntity.ok(new ApiResponse(true, "Expense created successfully", savedExpense));
+        } catch (IdempotencyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, e.getMessage()));
         } catch (Exception e) {
             log.error("Error creating expense: ", e);
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
@@ -93,10 +107,9 @@ public class PersonalExpenseController {
     public ResponseEntity<ApiResponse> updateExpense(
             @PathVariable Long expenseId,
             @RequestBody UpdatePersonalExpenseRequestDTO request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
+            Long userId = user.id();
 
             PersonalExpense updatedExpense = PersonalExpense.builder()
                     .title(request.getTitle())
@@ -124,10 +137,9 @@ public class PersonalExpenseController {
     @DeleteMapping("/{expenseId}")
     public ResponseEntity<ApiResponse> deleteExpense(
             @PathVariable Long expenseId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
+            Long userId = user.id();
             expenseService.deleteExpense(expenseId, userId);
             return ResponseEntity.ok(new ApiResponse(true, "Expense deleted successfully"));
         } catch (Exception e) {
@@ -139,13 +151,15 @@ public class PersonalExpenseController {
     @GetMapping("/category/{category}")
     public ResponseEntity<ApiResponse> getExpensesByCategory(
             @PathVariable String category,
-            Authentication authentication) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonalExpenseService.DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
+            Long userId = user.id();
             com.expensetracker.app.entity.ExpenseCategory expenseCategory = com.expensetracker.app.entity.ExpenseCategory
                     .valueOf(category.toUpperCase());
-            List<PersonalExpenseDTO> expenses = expenseService.getExpensesByCategory(userId, expenseCategory);
+            CursorPageResponse<PersonalExpenseDTO> expenses =
+                    expenseService.getExpensesByCategory(userId, expenseCategory, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Expenses retrieved by category", expenses));
         } catch (Exception e) {
             log.error("Error getting expenses by category: ", e);
@@ -157,11 +171,13 @@ public class PersonalExpenseController {
     public ResponseEntity<ApiResponse> getExpensesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
-            Authentication authentication) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonalExpenseService.DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
-            List<PersonalExpenseDTO> expenses = expenseService.getExpensesByDateRange(userId, startDate, endDate);
+            Long userId = user.id();
+            CursorPageResponse<PersonalExpenseDTO> expenses =
+                    expenseService.getExpensesByDateRange(userId, startDate, endDate, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Expenses retrieved by date range", expenses));
         } catch (Exception e) {
             log.error("Error getting expenses by date range: ", e);
@@ -172,11 +188,13 @@ public class PersonalExpenseController {
     @GetMapping("/group/{groupId}")
     public ResponseEntity<ApiResponse> getExpensesByGroupId(
             @PathVariable Long groupId,
-            Authentication authentication) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonalExpenseService.DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
-            List<PersonalExpenseDTO> expenses = expenseService.getExpensesByGroupId(groupId, userId);
+            Long userId = user.id();
+            CursorPageResponse<PersonalExpenseDTO> expenses =
+                    expenseService.getExpensesByGroupId(groupId, userId, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Expenses retrieved by group", expenses));
         } catch (Exception e) {
             log.error("Error getting expenses by group: ", e);
@@ -184,14 +202,23 @@ public class PersonalExpenseController {
         }
     }
 
+    // Ranked by relevance; category and the date bounds are optional filters
     @GetMapping("/search")
     public ResponseEntity<ApiResponse> searchExpenses(
             @RequestParam String keyword,
-            Authentication authentication) {
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PersonalExpenseService.DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
-            List<PersonalExpenseDTO> expenses = expenseService.searchExpenses(userId, keyword);
+            Long userId = user.id();
+            com.expensetracker.app.entity.ExpenseCategory expenseCategory = category == null || category.isBlank()
+                    ? null
+                    : com.expensetracker.app.entity.ExpenseCategory.valueOf(category.toUpperCase());
+            CursorPageResponse<PersonalExpenseDTO> expenses = expenseService.searchExpenses(
+                    userId, keyword, expenseCategory, startDate, endDate, cursor, size);
             return ResponseEntity.ok(new ApiResponse(true, "Expenses search completed", expenses));
         } catch (Exception e) {
             log.error("Error searching expenses: ", e);
@@ -200,10 +227,9 @@ public class PersonalExpenseController {
     }
 
     @GetMapping("/recent")
-    public ResponseEntity<ApiResponse> getRecentExpenses(Authentication authentication) {
+    public ResponseEntity<ApiResponse> getRecentExpenses(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            Long userId = userService.findUserIdByUsername(username);
+            Long userId = user.id();
             List<PersonalExpenseDTO> expenses = expenseService.getRecentExpenses(userId, 5);
             return ResponseEntity.ok(new ApiResponse(true, "Recent expenses retrieved", expenses));
         } catch (Exception e) {
@@ -1,5 +1,6 @@
 package com.expensetracker.app.controller;
 
+import com.expensetracker.app.config.AuthenticatedUser;
 import com.expensetracker.app.dto.*;
 import com.expensetracker.app.entity.PersonalExpenseGroup;
 import com.expensetracker.app.service.PersonalExpenseGroupService;
@@ -7,7 +8,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
@@ -24,10 +25,9 @@ public class PersonalExpenseGroupController {
     @PostMapping
     public ResponseEntity<?> createExpenseGroup(
             @RequestBody CreatePersonalExpenseGroupRequestDTO request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            PersonalExpenseGroupDTO response = expenseGroupService.createGroup(convertToEntity(request), username);
+            PersonalExpenseGroupDTO response = expenseGroupService.createGroup(convertToEntity(request), user.id());
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -36,10 +36,9 @@ public class PersonalExpenseGroupController {
 
     // Get all expense groups for logged-in user
     @GetMapping
-    public ResponseEntity<?> getUserExpenseGroups(Authentication authentication) {
+    public ResponseEntity<?> getUserExpenseGroups(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            List<PersonalExpenseGroupDTO> groups = expenseGroupService.getUserGroups(username);
+            List<PersonalExpenseGroupDTO> groups = expenseGroupService.getAllGroupsByUserId(user.id());
             return ResponseEntity.ok(groups);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -50,10 +49,9 @@ public class PersonalExpenseGroupController {
     @GetMapping("/{groupId}")
     public ResponseEntity<?> getExpenseGroupById(
             @PathVariable Long groupId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            PersonalExpenseGroupDTO response = expenseGroupService.getGroupById(groupId, username);
+            PersonalExpenseGroupDTO response = expenseGroupService.getGroupById(groupId, user.id());
             if (response == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Expense group not found or access denied.");
             }
@@ -68,10 +66,9 @@ public class PersonalExpenseGroupController {
     public ResponseEntity<?> updateExpenseGroup(
             @PathVariable Long groupId,
             @RequestBody UpdatePersonalExpenseGroupRequestDTO request,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            PersonalExpenseGroupDTO response = expenseGroupService.updateGroup(groupId, convertToEntity(request), username);
+            PersonalExpenseGroupDTO response = expenseGroupService.updateGroup(groupId, convertToEntity(request), user.id());
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -82,10 +79,9 @@ public class PersonalExpenseGroupController {
     @DeleteMapping("/{groupId}")
     public ResponseEntity<?> deleteExpenseGroup(
             @PathVariable Long groupId,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            expenseGroupService.deleteGroup(groupId, username);
+            expenseGroupService.deleteGroup(groupId, user.id());
             return ResponseEntity.ok("Expense group deleted successfully");
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -96,10 +92,9 @@ public class PersonalExpenseGroupController {
     @GetMapping("/search")
     public ResponseEntity<?> searchExpenseGroups(
             @RequestParam String title,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            List<PersonalExpenseGroupDTO> groups = expenseGroupService.searchGroupsByTitle(username, title);
+            List<PersonalExpenseGroupDTO> groups = expenseGroupService.searchGroupsByTitle(user.id(), title);
             return ResponseEntity.ok(groups);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -111,10 +106,9 @@ public class PersonalExpenseGroupController {
     public ResponseEntity<?> getExpenseGroupsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
-            Authentication authentication) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            String username = authentication.getName();
-            List<PersonalExpenseGroupDTO> groups = expenseGroupService.getGroupsByDateRange(username, startDate, endDate);
+            List<PersonalExpenseGroupDTO> groups = expenseGroupService.getGroupsByDateRange(user.id(), startDate, endDate);
             return ResponseEntity.ok(groups);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -1,5 +1,6 @@
 package com.expensetracker.app.controller;
 
+import com.expensetracker.app.config.AuthenticatedUser;
 import com.expensetracker.app.dto.ApiResponse;
 import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
 import com.expensetracker.app.dto.ExpenseSummaryDTO;
@@ -9,7 +10,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
@@ -24,22 +24,22 @@ public class StatisticsController {
     private final PersonalExpenseService expenseService;
 
     @GetMapping("/summary")
-    public ResponseEntity<ApiResponse> getExpenseSummary(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse> getExpenseSummary(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getUserIdFromUserDetails(userDetails);
+            Long userId = user.id();
             ExpenseSummaryDTO summary = statisticsService.getExpenseSummary(userId);
-            return ResponseEntity.ok(new ApiResponse(true, "Expense summary retrieved successfully"));
+            return ResponseEntity.ok(new ApiResponse(true, "Expense summary retrieved successfully", summary));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
     }
 
     @GetMapping("/category-wise")
-    public ResponseEntity<ApiResponse> getCategoryWiseExpenses(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse> getCategoryWiseExpenses(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getUserIdFromUserDetails(userDetails);
+            Long userId = user.id();
             List<CategoryWiseExpenseDTO> categoryWiseExpenses = expenseService.getCategoryWiseSummary(userId);
-            return ResponseEntity.ok(new ApiResponse(true, "Category-wise expenses retrieved"));
+            return ResponseEntity.ok(new ApiResponse(true, "Category-wise expenses retrieved", categoryWiseExpenses));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
@@ -49,42 +49,35 @@ public class StatisticsController {
     public ResponseEntity<ApiResponse> getExpenseSummaryByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getUserIdFromUserDetails(userDetails);
-            statisticsService.getExpenseSummaryByDateRange(userId, startDate, endDate);
-            return ResponseEntity.ok(new ApiResponse(true, "Expense summary by date range retrieved"));
+            Long userId = user.id();
+            ExpenseSummaryDTO summary = statisticsService.getExpenseSummaryByDateRange(userId, startDate, endDate);
+            return ResponseEntity.ok(new ApiResponse(true, "Expense summary by date range retrieved", summary));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
     }
 
     @GetMapping("/total-spent")
-    public ResponseEntity<ApiResponse> getTotalSpent(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse> getTotalSpent(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getUserIdFromUserDetails(userDetails);
-            expenseService.getTotalSpentByUserId(userId);
-            return ResponseEntity.ok(new ApiResponse(true, "Total spent retrieved"));
+            Long userId = user.id();
+            Double totalSpent = expenseService.getTotalSpentByUserId(userId);
+            return ResponseEntity.ok(new ApiResponse(true, "Total spent retrieved", totalSpent));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
     }
 
     @GetMapping("/total-saved")
-    public ResponseEntity<ApiResponse> getTotalSaved(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<ApiResponse> getTotalSaved(@AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Long userId = getUserIdFromUserDetails(userDetails);
-            expenseService.getTotalSavedByUserId(userId);
-            return ResponseEntity.ok(new ApiResponse(true, "Total saved retrieved"));
+            Long userId = user.id();
+            Double totalSaved = expenseService.getTotalSavedByUserId(userId);
+            return ResponseEntity.ok(new ApiResponse(true, "Total saved retrieved", totalSaved));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage()));
         }
     }
-
-    private Long getUserIdFromUserDetails(UserDetails userDetails) {
-        if (userDetails instanceof com.expensetracker.app.entity.User) {
-            return ((com.expensetracker.app.entity.User) userDetails).getId();
-        }
-        throw new RuntimeException("Unable to get user ID from authentication");
-    }
-}
\ No newline at end of file
+}
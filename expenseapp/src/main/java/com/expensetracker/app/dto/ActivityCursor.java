@@ -0,0 +1,58 @@
+package com.expensetracker.app.dto;
+
+import com.expensetracker.app.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position inside the activity feed, ordered by (timestamp DESC, type DESC, id DESC).
+ * Ids are only unique per type, so the type breaks ties between events created
+ * at the same instant by different sources.
+ */
+@Getter
+@AllArgsConstructor
+public class ActivityCursor {
+
+    private final OffsetDateTime timestamp;
+    private final String type;
+    private final Long id;
+
+    /**
+     * Encodes the cursor as a URL-safe token: "epochSecond:nano:type:id" in Base64.
+     */
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        String raw = instant.getEpochSecond() + ":" + instant.getNano() + ":" + type + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token The cursor sent by the client, may be null or blank for the first page.
+     * @return The decoded cursor, or null when no cursor was supplied.
+     * @throws ValidationException if the token is malformed.
+     */
+    public static ActivityCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || parts[2].isEmpty()) {
+                throw new ValidationException("Invalid activity cursor.");
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new ActivityCursor(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), parts[2], Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ValidationException("Invalid activity cursor.", e);
+        }
+    }
+}
@@ -26,6 +26,9 @@ public class AddExpenseRequest {
     @Valid // Ensure nested DTOs are also validated
     private List<ExpenseSplitDetail> splitDetails;
 
+    // Optional: when set, the server computes every owedAmount (see SplitStrategy)
+    private SplitStrategy splitStrategy;
+
     // --- Constructors ---
 
     public AddExpenseRequest() {
@@ -72,6 +75,14 @@ public class AddExpenseRequest {
         this.splitDetails = splitDetails;
     }
 
+    public SplitStrategy getSplitStrategy() {
+        return splitStrategy;
+    }
+
+    public void setSplitStrategy(SplitStrategy splitStrategy) {
+        this.splitStrategy = splitStrategy;
+    }
+
     // Optional: toString for logging
     @Override
     public String toString() {
@@ -80,6 +91,7 @@ public class AddExpenseRequest {
                ", description='" + description + '\'' +
                ", paidBy='" + paidBy + '\'' +
                ", splitDetails=" + splitDetails +
+               ", splitStrategy=" + splitStrategy +
                '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.expensetracker.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request body of POST /api/groups/{groupId}/expenses:batch.
+ * Items are validated one by one by the service so that a bad item
+ * is reported without rejecting the rest of the batch.
+ */
+@Data
+public class BatchAddExpenseRequest {
+
+    @NotEmpty(message = "The batch must contain at least one expense.")
+    @Size(max = 500, message = "A batch cannot exceed 500 expenses.")
+    private List<AddExpenseRequest> expenses;
+}
@@ -0,0 +1,26 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch import: one result per request item, in request order.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchExpenseResponse {
+
+    private int created;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Getter
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long expenseId; // null when the item failed
+        private String error;   // null when the item was created
+    }
+}
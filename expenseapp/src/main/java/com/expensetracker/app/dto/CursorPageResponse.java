@@ -0,0 +1,30 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing.
+ * 'nextCursor' is opaque to the client and must be sent back unchanged to fetch
+ * the following page; it is null once the last page has been reached.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Converts the items of this page while keeping the cursor information.
+     */
+    public <R> CursorPageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPageResponse<>(mapped, nextCursor, hasMore);
+    }
+}
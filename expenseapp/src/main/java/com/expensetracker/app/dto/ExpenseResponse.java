@@ -16,6 +16,7 @@ public class ExpenseResponse {
     private String paidBy;
     private OffsetDateTime date;
     private List<SplitDetailResponse> splits;
+    private Long version; // Send back as If-Match when updating
 
     // // --- Constructor ---
     // public ExpenseResponse(Long id, BigDecimal amount, String description, String paidBy, OffsetDateTime date, List<SplitDetailResponse> splits) {
@@ -13,7 +13,7 @@ public class ExpenseSplitDetail {
     @NotBlank(message = "Member username is required for split detail.")
     private String memberUsername;
 
-    @NotNull(message = "Owed amount is required.")
+    // Required when no split strategy (or EXACT) is used; computed by the server otherwise.
     @DecimalMin(value = "0.00", message = "Owed amount cannot be negative.")
     private BigDecimal owedAmount;
 
@@ -21,16 +21,20 @@ public class ExpenseSplitDetail {
     @DecimalMin(value = "0.00", message = "Paid amount cannot be negative.")
     private BigDecimal paidAmount;
 
+    // Percentage (PERCENT) or number of shares (SHARES); ignored by the other strategies.
+    @DecimalMin(value = "0.00", message = "Share cannot be negative.")
+    private BigDecimal share;
+
     // --- Constructors ---
 
     public ExpenseSplitDetail() {
     }
 
-    // public ExpenseSplitDetail(String memberUsername, BigDecimal owedAmount, BigDecimal paidAmount) {
-    //     this.memberUsername = memberUsername;
-    //     this.owedAmount = owedAmount;
-    //     this.paidAmount = paidAmount;
-    // }
+    public ExpenseSplitDetail(String memberUsername, BigDecimal owedAmount, BigDecimal paidAmount) {
+        this.memberUsername = memberUsername;
+        this.owedAmount = owedAmount;
+        this.paidAmount = paidAmount;
+    }
 
     // --- Getters and Setters ---
 
@@ -58,6 +62,14 @@ public class ExpenseSplitDetail {
         this.paidAmount = paidAmount;
     }
 
+    public BigDecimal getShare() {
+        return share;
+    }
+
+    public void setShare(BigDecimal share) {
+        this.share = share;
+    }
+
     // Optional: toString for logging
     @Override
     public String toString() {
@@ -65,6 +77,7 @@ public class ExpenseSplitDetail {
                "memberUsername='" + memberUsername + '\'' +
                ", owedAmount=" + owedAmount +
                ", paidAmount=" + paidAmount +
+               ", share=" + share +
                '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * One entry of a group's activity feed.
+ * 'type' tells the client how to render it (e.g. "EXPENSE", "ANNOUNCEMENT");
+ * fields that do not apply to a type are null.
+ */
+@Getter
+@AllArgsConstructor
+public class GroupActivityResponse {
+
+    private String type;
+    private Long id;
+    private OffsetDateTime createdAt;
+    private String actorUsername; // Payer of an expense, author of an announcement
+    private String title;
+    private String description;
+    private BigDecimal amount;
+}
@@ -0,0 +1,19 @@
+package com.expensetracker.app.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMembersBatchRequest {
+
+    @NotEmpty(message = "Provide at least one username.")
+    @Size(max = 500, message = "At most 500 usernames can be changed per request.")
+    private List<String> usernames;
+}
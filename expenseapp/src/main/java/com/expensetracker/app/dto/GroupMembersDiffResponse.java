@@ -0,0 +1,24 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * What a bulk member change did. Usernames are lower-case and sorted.
+ */
+@Getter
+@AllArgsConstructor
+public class GroupMembersDiffResponse {
+
+    private Long groupId;
+    // Members that were added, or removed, by this request
+    private List<String> added;
+    private List<String> removed;
+    // Already members for an add, not members for a remove
+    private List<String> unchanged;
+    // Usernames that match no user
+    private List<String> notFound;
+    private long totalMembers;
+}
@@ -7,4 +7,6 @@ import lombok.Data;
 @AllArgsConstructor
 public class JwtResponse {
     private String token;
+    // Exchanged at POST /api/auth/refresh for a new pair once the token expires
+    private String refreshToken;
 }
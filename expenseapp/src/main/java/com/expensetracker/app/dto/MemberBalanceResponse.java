@@ -0,0 +1,17 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Net balance of one group member.
+ * Positive: the member is owed money. Negative: the member owes money.
+ */
+@Getter
+@AllArgsConstructor
+public class MemberBalanceResponse {
+    private String memberUsername;
+    private BigDecimal netBalance;
+}
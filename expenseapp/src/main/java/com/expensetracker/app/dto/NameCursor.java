@@ -0,0 +1,51 @@
+package com.expensetracker.app.dto;
+
+import com.expensetracker.app.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position inside a listing ordered by (name ASC, id ASC).
+ * The next page starts strictly after this (name, id) pair.
+ */
+@Getter
+@AllArgsConstructor
+public class NameCursor {
+
+    private final String name;
+    private final Long id;
+
+    /**
+     * Encodes the cursor as a URL-safe token: "id:name" in Base64.
+     */
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token The cursor sent by the client, may be null or blank for the first page.
+     * @return The decoded cursor, or null when no cursor was supplied.
+     * @throws ValidationException if the token is malformed.
+     */
+    public static NameCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The name may itself contain ':', the id never does
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new ValidationException("Invalid page cursor.");
+            }
+            return new NameCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid page cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.expensetracker.app.dto;
+
+import com.expensetracker.app.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position inside a listing ordered by (timestamp DESC, id DESC).
+ * The next page starts strictly after this (timestamp, id) pair, so the database
+ * can seek directly into the index instead of skipping over OFFSET rows.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private final OffsetDateTime timestamp;
+    private final Long id;
+
+    /**
+     * Encodes the cursor as a URL-safe token: "epochSecond:nano:id" in Base64.
+     */
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        String raw = instant.getEpochSecond() + ":" + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token The cursor sent by the client, may be null or blank for the first page.
+     * @return The decoded cursor, or null when no cursor was supplied.
+     * @throws ValidationException if the token is malformed.
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new ValidationException("Invalid page cursor.");
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new PageCursor(OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ValidationException("Invalid page cursor.", e);
+        }
+    }
+}
@@ -33,4 +33,20 @@ public class PersonalExpenseDTO {
     private Double totalBudget;
     private Double savingsPercentage;
     private Boolean hasSavings;
+
+    /**
+     * Projection constructor, used by the JPQL 'SELECT new' read queries of
+     * PersonalExpenseRepository: the calculated fields are derived from the columns here,
+     * so reads never need the entity.
+     */
+    public PersonalExpenseDTO(Long id, String title, String description, ExpenseCategory category,
+                              Double totalSpent, Double amountSaved, OffsetDateTime expenseDate,
+                              PaymentMethod paymentMethod, OffsetDateTime createdAt, OffsetDateTime updatedAt,
+                              Long expenseGroupId, String expenseGroupTitle, Long userId, String username) {
+        this(id, title, description, category, totalSpent, amountSaved, expenseDate, paymentMethod,
+                createdAt, updatedAt, expenseGroupId, expenseGroupTitle, userId, username,
+                totalSpent != null && amountSaved != null ? totalSpent + amountSaved : null,
+                totalSpent != null && totalSpent > 0 && amountSaved != null ? (amountSaved / totalSpent) * 100 : null,
+                amountSaved != null && amountSaved > 0);
+    }
 }
\ No newline at end of file
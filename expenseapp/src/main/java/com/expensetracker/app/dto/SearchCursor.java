@@ -0,0 +1,63 @@
+package com.expensetracker.app.dto;
+
+import com.expensetracker.app.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position inside a search result ordered by (rank DESC, timestamp DESC, id DESC).
+ * The next page continues strictly after this row within its rank, so every page
+ * is an index seek, the same as {@link PageCursor}.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchCursor {
+
+    private final int rank;
+    private final OffsetDateTime timestamp;
+    private final Long id;
+
+    /**
+     * Encodes the cursor as a URL-safe token: "rank:epochSecond:nano:id" in Base64.
+     */
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        String raw = rank + ":" + instant.getEpochSecond() + ":" + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @param token The cursor sent by the client, may be null or blank for the first page.
+     * @param maxRank The highest rank the search uses; ranks run from maxRank down to 1.
+     * @return The decoded cursor, or null when no cursor was supplied.
+     * @throws ValidationException if the token is malformed.
+     */
+    public static SearchCursor decode(String token, int maxRank) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4) {
+                throw new ValidationException("Invalid page cursor.");
+            }
+            int rank = Integer.parseInt(parts[0]);
+            if (rank < 1 || rank > maxRank) {
+                throw new ValidationException("Invalid page cursor.");
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return new SearchCursor(rank, OffsetDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new ValidationException("Invalid page cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.expensetracker.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One step of a settlement plan: 'fromUsername' pays 'amount' to 'toUsername'.
+ */
+@Getter
+@AllArgsConstructor
+public class SettlementTransferResponse {
+    private String fromUsername;
+    private String toUsername;
+    private BigDecimal amount;
+}
@@ -0,0 +1,15 @@
+package com.expensetracker.app.dto;
+
+/**
+ * How the server computes each member's owed amount from an expense request.
+ */
+public enum SplitStrategy {
+    /** Everyone listed in the split owes the same amount. */
+    EQUAL,
+    /** 'share' is a percentage; the percentages must add up to exactly 100. */
+    PERCENT,
+    /** 'share' is a number of shares; members owe proportionally to their shares. */
+    SHARES,
+    /** 'owedAmount' is given for every member and must add up exactly to the amount. */
+    EXACT
+}
@@ -12,7 +12,10 @@ import java.time.OffsetDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        // Supports the keyset pagination on (created_at DESC, id DESC) per group
+        @Index(name = "idx_expenses_group_created_id", columnList = "group_id, created_at DESC, id DESC")
+})
 @Getter // Use explicit Getters
 @Setter // Use explicit Setters
 @NoArgsConstructor
@@ -43,6 +46,12 @@ public class Expense {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt; 
 
+    // Optimistic lock version, also used as the expense's ETag.
+    // The column default backfills rows that existed before the column was added.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // One Expense can have many split details
     // Cascade allows splits to be saved/deleted with the expense
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = true)
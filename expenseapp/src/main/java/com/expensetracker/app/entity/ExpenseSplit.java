@@ -10,7 +10,10 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "expense_splits")
+@Table(name = "expense_splits", indexes = {
+        // Splits are always read by expense: batch fetches, the export join and the ledger rebuild
+        @Index(name = "idx_expense_splits_expense_id", columnList = "expense_id")
+})
 @Getter // Use explicit Getters
 @Setter // Use explicit Setters
 @NoArgsConstructor
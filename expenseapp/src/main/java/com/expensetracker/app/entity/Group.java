@@ -34,6 +34,11 @@ public class Group {
     @Column(updatable = false)
     private OffsetDateTime createdAt;
 
+    // Whether group_member_balances has been built for this group.
+    // Null/false for groups that existed before the ledger; they are rebuilt on first use.
+    @Column(name = "balances_initialized")
+    private Boolean balancesInitialized;
+
     @PrePersist
     protected void onCreate() {
         // Ensuring timezone is set correctly, though best practice is usually UTC and
@@ -51,7 +56,9 @@ public class Group {
     // Many-to-many with users (group members)
     // Removed CascadeType.PERSIST for safety, as we fetch existing members.
     @ManyToMany(fetch = FetchType.LAZY, cascade = { CascadeType.MERGE })
-    @JoinTable(name = "group_members", joinColumns = @JoinColumn(name = "group_id"), inverseJoinColumns = @JoinColumn(name = "user_id"))
+    // The primary key covers group_id lookups; the index serves "groups of a user"
+    @JoinTable(name = "group_members", joinColumns = @JoinColumn(name = "group_id"), inverseJoinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_group_members_user_group", columnList = "user_id, group_id"))
     @Builder.Default
     private Set<User> members = new HashSet<>();
 
@@ -8,7 +8,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "group_announcements")
+@Table(name = "group_announcements", indexes = {
+        // Supports the keyset pagination of the activity feed on (created_at DESC, id DESC) per group
+        @Index(name = "idx_group_announcements_group_created_id", columnList = "group_id, created_at DESC, id DESC")
+})
 @Getter
 @Setter
 @Builder
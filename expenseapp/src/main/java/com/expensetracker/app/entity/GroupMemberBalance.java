@@ -0,0 +1,48 @@
+package com.expensetracker.app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Running net balance of one member inside one group.
+ * It always equals the sum of ExpenseSplit.netBalance for that member over the group's
+ * expenses, but is maintained incrementally so reading balances is O(members).
+ * Positive means the member is owed money, negative means the member owes money.
+ */
+@Entity
+@Table(name = "group_member_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_group_member_balance", columnNames = { "group_id", "member_username" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupMemberBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @Column(name = "member_username", nullable = false, length = 100)
+    private String memberUsername;
+
+    @Column(name = "net_balance", nullable = false)
+    private BigDecimal netBalance;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
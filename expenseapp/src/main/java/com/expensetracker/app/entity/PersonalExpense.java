@@ -8,7 +8,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "personal_expenses")
+@Table(name = "personal_expenses", indexes = {
+        // Serves the keyset-paginated listings (newest first) of one user's expenses
+        @Index(name = "idx_personal_expenses_user_date_id", columnList = "user_id, expense_date, id")
+})
 @Getter
 @Setter
 @Builder
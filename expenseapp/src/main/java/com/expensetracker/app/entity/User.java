@@ -10,10 +10,15 @@ import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet; // Import for initializing Set
+import java.util.Locale;
 import java.util.Set; 
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_username_normalized", columnList = "username_normalized")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_username_key", columnNames = "username_key")
+})
 @Getter
 @Setter
 @Builder
@@ -31,6 +36,17 @@ public class User implements UserDetails {
     @Column(nullable = false, unique = true)
     private String username;
 
+    // Trimmed, lower-case username, kept in sync by normalize(). Lookups by username go
+    // through this indexed column instead of LOWER(username), which no index serves.
+    @Column(name = "username_normalized")
+    private String usernameNormalized;
+
+    // The normalized username again, under a unique constraint, so two signups racing with "Bob"
+    // and "bob" cannot both succeed. Null only for legacy accounts whose username collides with an
+    // older account's (see UsernameNormalizationInitializer); they can still log in, by exact username.
+    @Column(name = "username_key")
+    private String usernameKey;
+
     @Column(nullable = false, unique = true)
     private String email;
 
@@ -41,6 +57,11 @@ public class User implements UserDetails {
     @Column(name = "created_at", updatable = false)
     private OffsetDateTime createdAt;
 
+    // Whether user_category_month_rollup has been built for this user.
+    // Null/false for users that existed before the rollups; they are rebuilt on first use.
+    @Column(name = "rollups_initialized")
+    private Boolean rollupsInitialized;
+
     // 🛑 CRITICAL FIX: UNCOMMENT/ADD THE RELATIONSHIP FIELD 🛑
     // 'mappedBy' points to the 'members' field in the Group entity.
     @ManyToMany(mappedBy = "members", fetch = FetchType.LAZY) 
@@ -52,6 +73,27 @@ public class User implements UserDetails {
     // If you were not using Lombok, you'd have to write these methods manually.
     // Since you are using @Getter, the 'getGroups()' method IS defined now.
     
+    @PrePersist
+    protected void normalizeNew() {
+        normalize();
+        this.usernameKey = usernameNormalized;
+    }
+
+    @PreUpdate
+    protected void normalize() {
+        this.usernameNormalized = normalizeUsername(username);
+        if (usernameKey != null) {
+            this.usernameKey = usernameNormalized;
+        }
+    }
+
+    /**
+     * The form usernames are compared in: trimmed and lower-case.
+     */
+    public static String normalizeUsername(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
+    }
+
     // --- UserDetails Implementation (Required for Spring Security) ---
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -0,0 +1,59 @@
+package com.expensetracker.app.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Totals of one user's personal expenses in one category and one calendar month (UTC).
+ * It always equals the aggregate of those expenses, but is maintained incrementally so
+ * the statistics read O(categories x months) rows instead of the user's whole history.
+ * A bucket whose last expense goes away is deleted.
+ */
+@Entity
+@Table(name = "user_category_month_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_category_month_rollup", columnNames = { "user_id", "category", "month_start" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserCategoryMonthRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private ExpenseCategory category;
+
+    // First day of the month
+    @Column(name = "month_start", nullable = false)
+    private LocalDate monthStart;
+
+    @Column(name = "total_spent", nullable = false)
+    private Double totalSpent;
+
+    @Column(name = "amount_saved", nullable = false)
+    private Double amountSaved;
+
+    @Column(name = "expense_count", nullable = false)
+    private Long expenseCount;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,19 @@
+package com.expensetracker.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a request with the same Idempotency-Key
+ * is still being processed and did not finish in time to be replayed.
+ * Spring automatically maps this exception to an HTTP 409 Conflict status.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.expensetracker.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a refresh token is unknown, expired, revoked
+ * or was already used, so the client has to log in again.
+ * Spring automatically maps this exception to an HTTP 401 Unauthorized status.
+ */
+@ResponseStatus(value = HttpStatus.UNAUTHORIZED)
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
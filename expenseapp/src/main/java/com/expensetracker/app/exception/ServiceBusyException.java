@@ -0,0 +1,19 @@
+package com.expensetracker.app.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception to indicate that a bounded resource (e.g. the password hashing pool)
+ * is saturated and the request was turned away instead of queued.
+ * Spring automatically maps this exception to an HTTP 503 Service Unavailable status.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.expensetracker.app.repository;
+
+import com.expensetracker.app.entity.Expense;
+
+import java.util.List;
+
+/**
+ * Bulk write path for expenses and their splits, bypassing the persistence context.
+ */
+public interface ExpenseBatchRepository {
+
+    /**
+     * Inserts the expenses and all of their splits using JDBC batches, and sets the
+     * generated id on every expense and split.
+     */
+    void insertAll(List<Expense> expenses);
+}
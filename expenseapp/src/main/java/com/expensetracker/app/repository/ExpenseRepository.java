@@ -1,12 +1,19 @@
 package com.expensetracker.app.repository;
 
 import com.expensetracker.app.entity.Expense;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * JPA Repository for the Expense entity.
@@ -23,6 +30,110 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     List<Expense> findByGroupIdOrderByCreatedAtDesc(Long groupId);
 
+    /**
+     * First page of the keyset pagination: newest expenses of a group.
+     * Only the rows requested by the Pageable are read, using idx_expenses_group_created_id.
+     */
+    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId ORDER BY e.createdAt DESC, e.id DESC")
+    List<Expense> findFirstPageByGroupId(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Following pages of the keyset pagination: expenses strictly older than the
+     * (createdAt, id) cursor. The redundant 'createdAt <= :createdAt' bound lets the
+     * database seek into the index, so the cost does not grow with scroll depth.
+     */
+    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId " +
+           "AND e.createdAt <= :createdAt " +
+           "AND (e.createdAt < :createdAt OR e.id < :id) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Expense> findPageByGroupIdBefore(@Param("groupId") Long groupId,
+                                          @Param("createdAt") OffsetDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    /**
+     * Same keyset page as findFirstPageByGroupId, but only reads [id, version] per row.
+     * Used to compute the page's ETag without loading the expenses or their splits.
+     */
+    @Query("SELECT e.id, e.version FROM Expense e WHERE e.group.id = :groupId ORDER BY e.createdAt DESC, e.id DESC")
+    List<Object[]> findFirstPageVersionsByGroupId(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Same keyset page as findPageByGroupIdBefore, but only reads [id, version] per row.
+     */
+    @Query("SELECT e.id, e.version FROM Expense e WHERE e.group.id = :groupId " +
+           "AND e.createdAt <= :createdAt " +
+           "AND (e.createdAt < :createdAt OR e.id < :id) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Object[]> findPageVersionsByGroupIdBefore(@Param("groupId") Long groupId,
+                                                   @Param("createdAt") OffsetDateTime createdAt,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * First page of the group activity feed: [id, createdAt, paidByUsername, description, amount]
+     * of the newest expenses, without loading entities or splits.
+     */
+    @Query("SELECT e.id, e.createdAt, e.paidByUsername, e.description, e.amount FROM Expense e " +
+           "WHERE e.group.id = :groupId ORDER BY e.createdAt DESC, e.id DESC")
+    List<Object[]> findActivityFirstPage(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Following pages of the group activity feed, same columns and keyset predicate
+     * as findPageByGroupIdBefore.
+     */
+    @Query("SELECT e.id, e.createdAt, e.paidByUsername, e.description, e.amount FROM Expense e " +
+           "WHERE e.group.id = :groupId " +
+           "AND e.createdAt <= :createdAt " +
+           "AND (e.createdAt < :createdAt OR e.id < :id) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Object[]> findActivityBefore(@Param("groupId") Long groupId,
+                                      @Param("createdAt") OffsetDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    /**
+     * Reads only the version of an expense of a group (primary key lookup, no split hydration).
+     */
+    @Query("SELECT e.version FROM Expense e WHERE e.id = :expenseId AND e.group.id = :groupId")
+    Optional<Long> findVersionByIdAndGroupId(@Param("expenseId") Long expenseId, @Param("groupId") Long groupId);
+
+    /**
+     * Initializes the splits of a whole page of expenses in one set-based query.
+     * The expenses are already managed in the persistence context, so the fetch join
+     * fills their lazy 'splits' collections instead of issuing one query per expense.
+     */
+    @Query("SELECT DISTINCT e FROM Expense e LEFT JOIN FETCH e.splits WHERE e.id IN :ids")
+    List<Expense> fetchSplitsForExpenses(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums the split net balances of a group per member.
+     * Used to (re)build group_member_balances from scratch.
+     * @return Rows of [memberUsername (String), netBalance (BigDecimal)].
+     */
+    @Query("SELECT s.memberUsername, SUM(s.netBalance) FROM ExpenseSplit s " +
+           "WHERE s.expense.group.id = :groupId GROUP BY s.memberUsername")
+    List<Object[]> sumNetBalanceByMember(@Param("groupId") Long groupId);
+
+    /**
+     * Streams a group's ledger as flat rows (one per split, or one per expense without splits),
+     * newest expense first. No entity is materialized, so the persistence context stays empty,
+     * and the fetch size makes the driver read the result set in chunks through a cursor.
+     * Must be consumed inside a transaction and closed after use.
+     * @return Rows of [expenseId, createdAt, description, amount, paidByUsername,
+     *         memberUsername, owedAmount, paidAmount, netBalance].
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.id, e.createdAt, e.description, e.amount, e.paidByUsername, " +
+           "s.memberUsername, s.owedAmount, s.paidAmount, s.netBalance " +
+           "FROM Expense e LEFT JOIN e.splits s " +
+           "WHERE e.group.id = :groupId " +
+           "ORDER BY e.createdAt DESC, e.id DESC, s.id ASC")
+    Stream<Object[]> streamLedgerRowsByGroupId(@Param("groupId") Long groupId);
+
     /**
      * Counts the total number of expenses for a specific group.
      * @param groupId The ID of the Group.
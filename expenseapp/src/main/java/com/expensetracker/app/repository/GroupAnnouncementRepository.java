@@ -1,9 +1,13 @@
 package com.expensetracker.app.repository;
 
 import com.expensetracker.app.entity.GroupAnnouncement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
@@ -22,6 +26,27 @@ public interface GroupAnnouncementRepository extends JpaRepository<GroupAnnounce
      */
     List<GroupAnnouncement> findByGroupIdOrderByCreatedAtDesc(Long groupId);
 
+    /**
+     * First page of the group activity feed: [id, createdAt, creator username, title, description]
+     * of the newest announcements. The creator is joined in the same query.
+     */
+    @Query("SELECT a.id, a.createdAt, u.username, a.title, a.description FROM GroupAnnouncement a " +
+           "JOIN a.createdBy u WHERE a.group.id = :groupId ORDER BY a.createdAt DESC, a.id DESC")
+    List<Object[]> findActivityFirstPage(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Following pages of the group activity feed: announcements strictly older than (createdAt, id).
+     */
+    @Query("SELECT a.id, a.createdAt, u.username, a.title, a.description FROM GroupAnnouncement a " +
+           "JOIN a.createdBy u WHERE a.group.id = :groupId " +
+           "AND a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Object[]> findActivityBefore(@Param("groupId") Long groupId,
+                                      @Param("createdAt") OffsetDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
     /**
      * Custom query method to find all announcements created by a specific user,
      * ordered by creation date descending.
@@ -1,18 +1,68 @@
 package com.expensetracker.app.repository;
 
 import com.expensetracker.app.entity.Group;
-import com.expensetracker.app.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Read-only projections for listing a user's groups.
+ * Every row is [id, name, description, createdBy username, createdAt]; no entity is loaded.
+ */
 @Repository
-public interface GroupListingRepository extends JpaRepository<Group, Long> {
+public interface GroupListingRepository extends JpaRepository<Group, Long>, GroupMemberPreviewRepository {
+
+    String GROUP_ROW = "SELECT g.id, g.name, g.description, cb.username, g.createdAt " +
+                       "FROM Group g JOIN g.members m JOIN g.createdBy cb " +
+                       "WHERE m.id = :userId ";
+
+    /**
+     * First page of the user's groups ordered by (name ASC, id ASC).
+     */
+    @Query(GROUP_ROW + "ORDER BY g.name ASC, g.id ASC")
+    List<Object[]> findFirstPageByName(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Following pages ordered by name: groups strictly after the (name, id) cursor.
+     */
+    @Query(GROUP_ROW +
+           "AND g.name >= :name " +
+           "AND (g.name > :name OR g.id > :id) " +
+           "ORDER BY g.name ASC, g.id ASC")
+    List<Object[]> findPageByNameAfter(@Param("userId") Long userId,
+                                       @Param("name") String name,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * First page of the user's groups, newest first.
+     */
+    @Query(GROUP_ROW + "ORDER BY g.createdAt DESC, g.id DESC")
+    List<Object[]> findFirstPageByCreatedAt(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Following pages, newest first: groups strictly older than the (createdAt, id) cursor.
+     */
+    @Query(GROUP_ROW +
+           "AND g.createdAt <= :createdAt " +
+           "AND (g.createdAt < :createdAt OR g.id < :id) " +
+           "ORDER BY g.createdAt DESC, g.id DESC")
+    List<Object[]> findPageByCreatedAtBefore(@Param("userId") Long userId,
+                                             @Param("createdAt") OffsetDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
 
     /**
-     * Finds all Group entities where the given User is present in the 'members' collection.
-     * This is the core query method for the listing feature.
+     * Member count of each group. Each row is [group_id, member_count].
      */
-    List<Group> findAllByMembersContaining(User user);
-}
\ No newline at end of file
+    @Query(value = "SELECT gm.group_id, COUNT(*) FROM group_members gm " +
+                   "WHERE gm.group_id IN (:groupIds) GROUP BY gm.group_id",
+           nativeQuery = true)
+    List<Object[]> countMembers(@Param("groupIds") Collection<Long> groupIds);
+}
@@ -0,0 +1,35 @@
+package com.expensetracker.app.repository;
+
+import com.expensetracker.app.entity.GroupMemberBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the materialized per-member balances of a group.
+ */
+@Repository
+public interface GroupMemberBalanceRepository extends JpaRepository<GroupMemberBalance, Long> {
+
+    /**
+     * All balances of a group, ordered by member username.
+     */
+    List<GroupMemberBalance> findByGroupIdOrderByMemberUsernameAsc(Long groupId);
+
+    /**
+     * Balances of the given members only (used when applying the deltas of one expense).
+     */
+    List<GroupMemberBalance> findByGroupIdAndMemberUsernameIn(Long groupId, Collection<String> memberUsernames);
+
+    /**
+     * Removes every balance of a group before it is rebuilt from the expense splits.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = false)
+    @Query("DELETE FROM GroupMemberBalance b WHERE b.group.id = :groupId")
+    void deleteByGroupId(@Param("groupId") Long groupId);
+}
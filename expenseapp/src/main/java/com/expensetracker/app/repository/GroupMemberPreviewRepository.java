@@ -0,0 +1,16 @@
+package com.expensetracker.app.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The first members of several groups at once, for the member previews of group listings.
+ */
+public interface GroupMemberPreviewRepository {
+
+    /**
+     * The first 'limit' members of each group in the order of the member listing
+     * (username_normalized, id). Each row is [group_id, username], ordered by group and then member.
+     */
+    List<Object[]> findMemberPreviews(Collection<Long> groupIds, int limit);
+}
@@ -2,12 +2,16 @@ package com.expensetracker.app.repository;
 
 import com.expensetracker.app.entity.Group;
 
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import java.util.*;
 
 @Repository
@@ -35,11 +39,69 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     // Find groups created by a specific user
     List<Group> findByCreatedById(Long userId);
 
-    @Override
-    @EntityGraph(attributePaths = {"members"})
-    Optional<Group> findById(Long id);
+    // Row lock on the group (SELECT ... FOR UPDATE), serializes writers of the group's balance ledger and member list
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Group g WHERE g.id = :groupId")
+    Optional<Group> findByIdForUpdate(@Param("groupId") Long groupId);
 
     // Eagerly fetch group with members for authorization checks
     @Query("SELECT g FROM Group g LEFT JOIN FETCH g.members WHERE g.id = :groupId")
     Optional<Group> findByIdWithMembers(@Param("groupId") Long groupId);
+
+    /**
+     * First page of a group's members as [id, username, usernameNormalized], ordered by
+     * (usernameNormalized ASC, id ASC). 'pattern' is a LIKE pattern on the normalized username
+     * ("%" for everyone, "ab%" for a prefix). Filter and order use the indexed column as is
+     * (see User and UserIndexInitializer), never an expression over it.
+     */
+    @Query("SELECT u.id, u.username, u.usernameNormalized FROM Group g JOIN g.members u " +
+           "WHERE g.id = :groupId AND u.usernameNormalized LIKE :pattern ESCAPE '\\' " +
+           "ORDER BY u.usernameNormalized ASC, u.id ASC")
+    List<Object[]> findMemberPage(@Param("groupId") Long groupId,
+                                  @Param("pattern") String pattern,
+                                  Pageable pageable);
+
+    /**
+     * Following pages of the member listing: members strictly after the (usernameNormalized, id) cursor.
+     */
+    @Query("SELECT u.id, u.username, u.usernameNormalized FROM Group g JOIN g.members u " +
+           "WHERE g.id = :groupId AND u.usernameNormalized LIKE :pattern ESCAPE '\\' " +
+           "AND u.usernameNormalized >= :username AND (u.usernameNormalized > :username OR u.id > :id) " +
+           "ORDER BY u.usernameNormalized ASC, u.id ASC")
+    List<Object[]> findMemberPageAfter(@Param("groupId") Long groupId,
+                                       @Param("pattern") String pattern,
+                                       @Param("username") String username,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * Adds the users that are not members yet, in one INSERT ... SELECT, without loading the
+     * group's member collection. Callers hold the group row lock so the NOT EXISTS check is stable.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO group_members (group_id, user_id) " +
+                   "SELECT :groupId, u.id FROM users u WHERE u.id IN (:userIds) " +
+                   "AND NOT EXISTS (SELECT 1 FROM group_members gm WHERE gm.group_id = :groupId AND gm.user_id = u.id)",
+           nativeQuery = true)
+    int insertMembers(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM group_members WHERE group_id = :groupId AND user_id IN (:userIds)", nativeQuery = true)
+    int deleteMembers(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
+
+    // Which of these users are members of the group
+    @Query(value = "SELECT user_id FROM group_members WHERE group_id = :groupId AND user_id IN (:userIds)",
+           nativeQuery = true)
+    List<Long> findMemberIdsIn(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
+
+    @Query(value = "SELECT COUNT(*) FROM group_members WHERE group_id = :groupId", nativeQuery = true)
+    long countMembers(@Param("groupId") Long groupId);
+
+    // Member IDs straight from the join table, for the membership cache (limited, to spot groups too large for it)
+    @Query(value = "SELECT user_id FROM group_members WHERE group_id = :groupId", nativeQuery = true)
+    List<Long> findMemberIds(@Param("groupId") Long groupId, Pageable pageable);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM group_members WHERE group_id = :groupId AND user_id = :userId)",
+           nativeQuery = true)
+    boolean existsMember(@Param("groupId") Long groupId, @Param("userId") Long userId);
 }
\ No newline at end of file
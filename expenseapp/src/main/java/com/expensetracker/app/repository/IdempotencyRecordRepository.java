@@ -0,0 +1,41 @@
+package com.expensetracker.app.repository;
+
+import com.expensetracker.app.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Plain INSERT (save() would merge into an existing row): fails with a
+     * DataIntegrityViolationException when another request already stored the key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records " +
+                   "(record_key, request_hash, response_status, response_body, created_at, expires_at) " +
+                   "VALUES (:#{#r.recordKey}, :#{#r.requestHash}, :#{#r.responseStatus}, :#{#r.responseBody}, " +
+                   ":#{#r.createdAt}, :#{#r.expiresAt})", nativeQuery = true)
+    void insert(@Param("r") IdempotencyRecord record);
+
+    /**
+     * Removes the records whose retry window has passed.
+     * @return The number of deleted records.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+
+    /**
+     * Removes the record of one key if its retry window has passed, so that the key can be stored again
+     * before the periodic cleanup has run.
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.recordKey = :recordKey AND r.expiresAt <= :now")
+    int deleteExpired(@Param("recordKey") String recordKey, @Param("now") OffsetDateTime now);
+}
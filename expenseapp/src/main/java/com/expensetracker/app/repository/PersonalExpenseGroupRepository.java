@@ -30,6 +30,10 @@ public interface PersonalExpenseGroupRepository extends JpaRepository<PersonalEx
     @Query("SELECT COUNT(peg) FROM PersonalExpenseGroup peg WHERE peg.user.id = :userId")
     Long countByUserId(@Param("userId") Long userId);
     
+    // Owner of the group, for access checks that should not load the group
+    @Query("SELECT peg.user.id FROM PersonalExpenseGroup peg WHERE peg.id = :groupId")
+    Optional<Long> findOwnerId(@Param("groupId") Long groupId);
+
     Boolean existsByUserIdAndTitle(Long userId, String title);
     
     List<PersonalExpenseGroup> findByUserIdAndTitleContainingIgnoreCase(Long userId, String title);
@@ -1,10 +1,12 @@
 package com.expensetracker.app.repository;
 
 import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
+import com.expensetracker.app.dto.PersonalExpenseDTO;
 import com.expensetracker.app.entity.ExpenseCategory;
 import com.expensetracker.app.entity.PersonalExpense;
 import com.expensetracker.app.entity.PersonalExpenseGroup;
 import com.expensetracker.app.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,9 +14,59 @@ import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface PersonalExpenseRepository extends JpaRepository<PersonalExpense, Long> {
+public interface PersonalExpenseRepository extends JpaRepository<PersonalExpense, Long>, PersonalExpenseSearchRepository {
+
+    // Read queries select straight into PersonalExpenseDTO, with the username and group
+    // title joined in the same statement; no entity is loaded.
+    String DTO_SELECT = "SELECT new com.expensetracker.app.dto.PersonalExpenseDTO(" +
+            "pe.id, pe.title, pe.description, pe.category, pe.totalSpent, pe.amountSaved, pe.expenseDate, " +
+            "pe.paymentMethod, pe.createdAt, pe.updatedAt, g.id, g.title, u.id, u.username) " +
+            "FROM PersonalExpense pe JOIN pe.user u LEFT JOIN pe.expenseGroup g ";
+
+    // Keyset pages of one user's expenses, newest first: rows strictly older than the
+    // (expenseDate, id) cursor. The redundant 'expenseDate <= :expenseDate' bound lets the
+    // database seek into idx_personal_expenses_user_date_id instead of skipping rows.
+    String PAGE_SELECT = DTO_SELECT + "WHERE u.id = :userId ";
+    String PAGE_KEYSET = "AND pe.expenseDate <= :expenseDate " +
+            "AND (pe.expenseDate < :expenseDate OR pe.id < :id) " +
+            "ORDER BY pe.expenseDate DESC, pe.id DESC";
+
+    @Query(PAGE_SELECT + PAGE_KEYSET)
+    List<PersonalExpenseDTO> findPageByUserId(@Param("userId") Long userId,
+                                           @Param("expenseDate") OffsetDateTime expenseDate,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    @Query(PAGE_SELECT + "AND pe.category = :category " + PAGE_KEYSET)
+    List<PersonalExpenseDTO> findPageByUserIdAndCategory(@Param("userId") Long userId,
+                                                      @Param("category") ExpenseCategory category,
+                                                      @Param("expenseDate") OffsetDateTime expenseDate,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE pe.id = :id")
+    Optional<PersonalExpenseDTO> findDtoById(@Param("id") Long id);
+
+    @Query(PAGE_SELECT + "ORDER BY pe.expenseDate DESC, pe.id DESC")
+    List<PersonalExpenseDTO> findRecentDtos(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(PAGE_SELECT + "AND pe.expenseDate BETWEEN :startDate AND :endDate " + PAGE_KEYSET)
+    List<PersonalExpenseDTO> findPageByUserIdAndDateRange(@Param("userId") Long userId,
+                                                       @Param("startDate") OffsetDateTime startDate,
+                                                       @Param("endDate") OffsetDateTime endDate,
+                                                       @Param("expenseDate") OffsetDateTime expenseDate,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
+    @Query(PAGE_SELECT + "AND pe.expenseGroup.id = :groupId " + PAGE_KEYSET)
+    List<PersonalExpenseDTO> findPageByUserIdAndGroupId(@Param("userId") Long userId,
+                                                     @Param("groupId") Long groupId,
+                                                     @Param("expenseDate") OffsetDateTime expenseDate,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
 
     List<PersonalExpense> findByUser(User user);
 
@@ -52,6 +104,10 @@ public interface PersonalExpenseRepository extends JpaRepository<PersonalExpense
     @Query("SELECT COUNT(pe) FROM PersonalExpense pe WHERE pe.user.id = :userId")
     Long countByUserId(@Param("userId") Long userId);
 
+    // [category, expenseDate, totalSpent, amountSaved] of every expense of the user, to rebuild the rollups
+    @Query("SELECT pe.category, pe.expenseDate, pe.totalSpent, pe.amountSaved FROM PersonalExpense pe WHERE pe.user.id = :userId")
+    List<Object[]> findRollupSourcesByUserId(@Param("userId") Long userId);
+
     // 🆕 FIXED: Category Wise Expense Summary - Remove displayName reference
     @Query("SELECT new com.expensetracker.app.dto.CategoryWiseExpenseDTO(" +
             "pe.category, " +
@@ -0,0 +1,48 @@
+package com.expensetracker.app.repository;
+
+import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.entity.UserCategoryMonthRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for the materialized per-user, per-category monthly expense totals.
+ */
+@Repository
+public interface UserCategoryMonthRollupRepository extends JpaRepository<UserCategoryMonthRollup, Long> {
+
+    /**
+     * The bucket one expense contributes to (used when applying the deltas of one expense).
+     */
+    @Query("SELECT r FROM UserCategoryMonthRollup r " +
+            "WHERE r.user.id = :userId AND r.category = :category AND r.monthStart = :monthStart")
+    Optional<UserCategoryMonthRollup> findBucket(@Param("userId") Long userId,
+                                                 @Param("category") ExpenseCategory category,
+                                                 @Param("monthStart") LocalDate monthStart);
+
+    /**
+     * All-time totals per category, highest spending first. percentageOfTotal is left at 0
+     * for the caller to fill in from the grand total.
+     */
+    @Query("SELECT new com.expensetracker.app.dto.CategoryWiseExpenseDTO(" +
+            "r.category, SUM(r.totalSpent), SUM(r.amountSaved), 0.0, SUM(r.expenseCount)) " +
+            "FROM UserCategoryMonthRollup r WHERE r.user.id = :userId " +
+            "GROUP BY r.category " +
+            "ORDER BY SUM(r.totalSpent) DESC")
+    List<CategoryWiseExpenseDTO> sumByCategory(@Param("userId") Long userId);
+
+    /**
+     * Removes every bucket of a user before they are rebuilt from the expenses.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = false)
+    @Query("DELETE FROM UserCategoryMonthRollup r WHERE r.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,8 +1,12 @@
 package com.expensetracker.app.repository;
 
 import com.expensetracker.app.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.*;
 
@@ -10,6 +14,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // Row lock on the user (SELECT ... FOR UPDATE), serializes writers of the user's expense rollups
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :userId")
+    Optional<User> findByIdForUpdate(@Param("userId") Long userId);
+
+    @Query("SELECT u.rollupsInitialized FROM User u WHERE u.id = :userId")
+    Boolean findRollupsInitialized(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u ORDER BY u.id ASC")
+    List<Long> findAllIds();
+
+    /**
+     * IDs of the users with this normalized username (see User.normalizeUsername), oldest first.
+     * Only accounts created before the column existed can share one.
+     */
+    @Query("SELECT u.id FROM User u WHERE u.usernameNormalized = :normalized ORDER BY u.id ASC")
+    List<Long> findIdsByNormalizedUsername(@Param("normalized") String normalized);
+
+    boolean existsByUsernameNormalized(String usernameNormalized);
+
+    // Fills username_normalized for the rows written before the column existed
+    @Modifying
+    @Query("UPDATE User u SET u.usernameNormalized = LOWER(TRIM(u.username)) WHERE u.usernameNormalized IS NULL")
+    int backfillNormalizedUsernames();
+
+    /**
+     * Gives username_key to the accounts that have none and are the oldest with their normalized
+     * username. The newer case-variant duplicates of an existing account keep a null key.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.usernameKey = u.usernameNormalized " +
+           "WHERE u.usernameKey IS NULL AND u.usernameNormalized IS NOT NULL " +
+           "AND u.id = (SELECT MIN(o.id) FROM User o WHERE o.usernameNormalized = u.usernameNormalized)")
+    int backfillUsernameKeys();
+
+    // Usernames of the legacy accounts left without a username_key, as [id, username]
+    @Query("SELECT u.id, u.username FROM User u WHERE u.usernameKey IS NULL ORDER BY u.id ASC")
+    List<Object[]> findUsersWithoutUsernameKey();
+
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
@@ -21,9 +64,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Finds all users whose usernames are in the provided collection/set.
      * This is the correct method for efficient batch lookup in the GroupService.
      */
-    @Query("SELECT u FROM User u WHERE LOWER(u.username) IN :usernames")
+    @Query("SELECT u FROM User u WHERE u.usernameNormalized IN :usernames")
     List<User> findAllByUsernameIn(Collection<String> usernames);
     
+    /**
+     * [id, username] of the users whose lower-cased username is in the collection, without loading the entities.
+     */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.usernameNormalized IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
     // Alternatively, if you prefer to be explicit about the Set:
     // List<User> findAllByUsernameIn(Set<String> usernames); 
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.expensetracker.app.repository.impl;
+
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.ExpenseSplit;
+import com.expensetracker.app.repository.ExpenseBatchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class ExpenseBatchRepositoryImpl implements ExpenseBatchRepository {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String INSERT_EXPENSE = """
+            INSERT INTO expenses (group_id, amount, description, paid_by_username, created_at, version)
+            VALUES (?, ?, ?, ?, ?, 0)
+            """;
+
+    private static final String INSERT_SPLIT = """
+            INSERT INTO expense_splits (expense_id, member_username, owed_amount, paid_amount, net_balance)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Expense> expenses) {
+        insert(INSERT_EXPENSE, expenses, (ps, e) -> {
+            ps.setLong(1, e.getGroup().getId());
+            ps.setBigDecimal(2, e.getAmount());
+            ps.setString(3, e.getDescription());
+            ps.setString(4, e.getPaidByUsername());
+            ps.setObject(5, e.getCreatedAt());
+        }, Expense::setId);
+
+        // Splits go in after their expense, once its id is known
+        List<ExpenseSplit> splits = expenses.stream()
+                .flatMap(e -> e.getSplits().stream())
+                .collect(Collectors.toList());
+
+        insert(INSERT_SPLIT, splits, (ps, s) -> {
+            ps.setLong(1, s.getExpense().getId());
+            ps.setString(2, s.getMemberUsername());
+            ps.setBigDecimal(3, s.getOwedAmount());
+            ps.setBigDecimal(4, s.getPaidAmount());
+            ps.setBigDecimal(5, s.getNetBalance());
+        }, ExpenseSplit::setId);
+    }
+
+    // One JDBC batch per BATCH_SIZE rows; the identity column hands out the ids, which the
+    // driver returns in row order (works the same on PostgreSQL and H2)
+    private <T> void insert(String sql, List<T> rows, ParameterizedPreparedStatementSetter<T> binder,
+                            BiConsumer<T, Long> idSetter) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<T> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, new String[] { "id" }),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            binder.setValues(ps, chunk.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keys);
+
+            List<Map<String, Object>> generated = keys.getKeyList();
+            for (int i = 0; i < chunk.size(); i++) {
+                idSetter.accept(chunk.get(i), ((Number) generated.get(i).values().iterator().next()).longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.expensetracker.app.repository.impl;
+
+import com.expensetracker.app.repository.GroupMemberPreviewRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public class GroupMemberPreviewRepositoryImpl implements GroupMemberPreviewRepository {
+
+    // One LIMIT query per group, walking the username_normalized index and stopping after 'limit'
+    // rows instead of ranking every member. A UNION ALL rather than a LATERAL join, which H2 lacks.
+    private static final String GROUP_PREVIEW =
+            "(SELECT gm.group_id, u.username, u.username_normalized, u.id " +
+            "FROM group_members gm JOIN users u ON u.id = gm.user_id " +
+            "WHERE gm.group_id = ? ORDER BY u.username_normalized, u.id LIMIT ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findMemberPreviews(Collection<Long> groupIds, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT p.group_id, p.username FROM (");
+        for (int i = 0; i < groupIds.size(); i++) {
+            sql.append(i == 0 ? "" : " UNION ALL ").append(GROUP_PREVIEW);
+        }
+        sql.append(") p ORDER BY p.group_id, p.username_normalized, p.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int position = 1;
+        for (Long groupId : groupIds) {
+            query.setParameter(position++, groupId);
+            query.setParameter(position++, limit);
+        }
+        return query.getResultList();
+    }
+}
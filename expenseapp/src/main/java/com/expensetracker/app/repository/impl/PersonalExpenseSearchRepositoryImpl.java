@@ -0,0 +1,94 @@
+package com.expensetracker.app.repository.impl;
+
+import com.expensetracker.app.dto.PersonalExpenseDTO;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.repository.PersonalExpenseRepository;
+import com.expensetracker.app.repository.PersonalExpenseSearchRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class PersonalExpenseSearchRepositoryImpl implements PersonalExpenseSearchRepository {
+
+    // The hits of each rank, disjoint so that every row belongs to exactly one rank (title is never null)
+    private static final String TITLE_PREFIX = "AND LOWER(pe.title) LIKE :prefix ESCAPE '\\' ";
+    private static final String TITLE_CONTAINS = "AND LOWER(pe.title) LIKE :pattern ESCAPE '\\' " +
+            "AND LOWER(pe.title) NOT LIKE :prefix ESCAPE '\\' ";
+    private static final String DESCRIPTION_ONLY = "AND LOWER(pe.description) LIKE :pattern ESCAPE '\\' " +
+            "AND LOWER(pe.title) NOT LIKE :pattern ESCAPE '\\' ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Boolean postgres;
+
+    @Override
+    public List<PersonalExpenseDTO> searchPage(Long userId, String pattern, String prefix, int rank,
+                                               ExpenseCategory category, OffsetDateTime startDate,
+                                               OffsetDateTime endDate, OffsetDateTime expenseDate, Long id,
+                                               Pageable pageable) {
+        // Optional filters are left out rather than written as ":x IS NULL OR ...", which PostgreSQL
+        // rejects for null parameters of unknown type and which hides the real predicate from the planner
+        StringBuilder jpql = new StringBuilder(PersonalExpenseRepository.PAGE_SELECT);
+        jpql.append(switch (rank) {
+            case RANK_TITLE_PREFIX -> TITLE_PREFIX;
+            case RANK_TITLE_CONTAINS -> TITLE_CONTAINS;
+            case RANK_DESCRIPTION -> DESCRIPTION_ONLY;
+            default -> throw new IllegalArgumentException("Unknown search rank: " + rank);
+        });
+        if (category != null) {
+            jpql.append("AND pe.category = :category ");
+        }
+        if (startDate != null) {
+            jpql.append("AND pe.expenseDate >= :startDate ");
+        }
+        if (endDate != null) {
+            jpql.append("AND pe.expenseDate <= :endDate ");
+        }
+        jpql.append(PersonalExpenseRepository.PAGE_KEYSET);
+
+        TypedQuery<PersonalExpenseDTO> query = entityManager.createQuery(jpql.toString(), PersonalExpenseDTO.class);
+        query.setParameter("userId", userId);
+        if (rank != RANK_DESCRIPTION) {
+            query.setParameter("prefix", prefix);
+        }
+        if (rank != RANK_TITLE_PREFIX) {
+            query.setParameter("pattern", pattern);
+        }
+        if (category != null) {
+            query.setParameter("category", category);
+        }
+        if (startDate != null) {
+            query.setParameter("startDate", startDate);
+        }
+        if (endDate != null) {
+            query.setParameter("endDate", endDate);
+        }
+        query.setParameter("expenseDate", expenseDate);
+        query.setParameter("id", id);
+        query.setMaxResults(pageable.getPageSize());
+        return query.getResultList();
+    }
+
+    @Override
+    public void planSearchWithParameterValues() {
+        if (isPostgres()) {
+            entityManager.createNativeQuery("SELECT set_config('plan_cache_mode', 'force_custom_plan', true)")
+                    .getSingleResult();
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,41 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.GroupActivityResponse;
+import com.expensetracker.app.repository.GroupAnnouncementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Group announcements as activity events.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnnouncementActivitySource implements GroupActivitySource {
+
+    public static final String TYPE = "ANNOUNCEMENT";
+
+    private final GroupAnnouncementRepository announcementRepository;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<GroupActivityResponse> findBefore(Long groupId, OffsetDateTime createdAt, long id, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Object[]> rows = createdAt == null
+                ? announcementRepository.findActivityFirstPage(groupId, page)
+                : announcementRepository.findActivityBefore(groupId, createdAt, id, page);
+
+        return rows.stream()
+                .map(row -> new GroupActivityResponse(TYPE, (Long) row[0], (OffsetDateTime) row[1],
+                        (String) row[2], (String) row[3], (String) row[4], null))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.expensetracker.app.service;
 
+import com.expensetracker.app.dto.GroupActivityResponse;
 import com.expensetracker.app.dto.GroupAnnouncementRequest;
 import com.expensetracker.app.dto.GroupAnnouncementResponse;
 import com.expensetracker.app.entity.Group;
@@ -10,7 +11,7 @@ import com.expensetracker.app.repository.GroupRepository;
 import com.expensetracker.app.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.access.AccessDeniedException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,6 +24,8 @@ public class AnnouncementService {
     private final GroupAnnouncementRepository announcementRepository;
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
+    private final GroupMembershipService groupMembershipService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates a new announcement for a group after verifying the user is a member.
@@ -38,22 +41,15 @@ public class AnnouncementService {
             String requestingUsername,
             GroupAnnouncementRequest request) {
 
-        // 1. Fetch Group
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new RuntimeException("Group not found with ID: " + groupId));
+        // 1. Authorization Check: Only existing members can create announcements.
+        groupMembershipService.requireMember(groupId, requestingUsername,
+                "Access Denied: Only group members can post announcements.");
+        Group group = groupRepository.getReferenceById(groupId);
 
         // 2. Fetch User (Creator)
         User creator = userRepository.findByUsername(requestingUsername.toLowerCase())
                 .orElseThrow(() -> new RuntimeException("User not found: " + requestingUsername));
 
-        // 3. Authorization Check: Only existing members can create announcements.
-        boolean isMember = group.getMembers().stream()
-                .anyMatch(member -> member.getUsername().equalsIgnoreCase(requestingUsername));
-
-        if (!isMember) {
-            throw new AccessDeniedException("Access Denied: Only group members can post announcements.");
-        }
-
         // 4. Create Entity from Request
         GroupAnnouncement announcement = GroupAnnouncement.builder()
                 .group(group)
@@ -64,7 +60,13 @@ public class AnnouncementService {
 
         // 5. Save and return mapped DTO
         announcement = announcementRepository.save(announcement);
-        
+
+        // 6. Notify live subscribers of the group once the transaction commits
+        eventPublisher.publishEvent(new GroupEvent(groupId, GroupEvent.ANNOUNCEMENT_CREATED,
+                new GroupActivityResponse(AnnouncementActivitySource.TYPE, announcement.getId(),
+                        announcement.getCreatedAt(), creator.getUsername(),
+                        announcement.getTitle(), announcement.getDescription(), null)));
+
         return mapToResponse(announcement);
     }
 
@@ -0,0 +1,43 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.GroupActivityResponse;
+import com.expensetracker.app.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Group expenses as activity events. The splits are not read; the client
+ * loads them through the single expense endpoint when an entry is opened.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseActivitySource implements GroupActivitySource {
+
+    public static final String TYPE = "EXPENSE";
+
+    private final ExpenseRepository expenseRepository;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public List<GroupActivityResponse> findBefore(Long groupId, OffsetDateTime createdAt, long id, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Object[]> rows = createdAt == null
+                ? expenseRepository.findActivityFirstPage(groupId, page)
+                : expenseRepository.findActivityBefore(groupId, createdAt, id, page);
+
+        return rows.stream()
+                .map(row -> new GroupActivityResponse(TYPE, (Long) row[0], (OffsetDateTime) row[1],
+                        (String) row[2], (String) row[3], null, (BigDecimal) row[4]))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,131 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.BatchExpenseResponse;
+import com.expensetracker.app.dto.ExpenseSplitDetail;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
+import com.expensetracker.app.repository.ExpenseBatchRepository;
+import com.expensetracker.app.repository.GroupRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports many expenses of one group in a single request.
+ *
+ * The group and its members are loaded once and every item is validated against
+ * that snapshot. Valid items are written with JDBC batches (the generated ids are
+ * read back from the batches), invalid items are reported back by index.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseBatchService {
+
+    private final GroupRepository groupRepository;
+    private final ExpenseBatchRepository expenseBatchRepository;
+    private final ExpenseService expenseService;
+    private final GroupBalanceService groupBalanceService;
+    private final Validator validator;
+
+    @Transactional
+    public BatchExpenseResponse createExpenses(Long groupId, List<AddExpenseRequest> requests, String currentUsername) {
+        Group group = groupRepository.findByIdWithMembers(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
+
+        if (!group.isMember(currentUsername)) {
+            throw new AccessDeniedException("User '" + currentUsername + "' is not authorized to add expenses to this group. User is not a member.");
+        }
+
+        // One membership snapshot for the whole batch
+        Set<String> memberUsernames = group.getMembers().stream()
+                .map(User::getUsername)
+                .map(u -> u.trim().toLowerCase())
+                .collect(Collectors.toSet());
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<BatchExpenseResponse.ItemResult> results = new ArrayList<>(requests.size());
+        List<Expense> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            AddExpenseRequest request = requests.get(i);
+            try {
+                validateItem(request, memberUsernames);
+                accepted.add(buildExpense(group, request, now));
+                acceptedIndexes.add(i);
+                results.add(null); // filled in once the id is known
+            } catch (ValidationException e) {
+                results.add(new BatchExpenseResponse.ItemResult(i, null, e.getMessage()));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            groupBalanceService.lockLedger(group);
+            expenseBatchRepository.insertAll(accepted);
+
+            Map<String, BigDecimal> deltas = new HashMap<>();
+            for (Expense expense : accepted) {
+                GroupBalanceService.netByMember(expense.getSplits())
+                        .forEach((member, net) -> deltas.merge(member, net, BigDecimal::add));
+            }
+            groupBalanceService.applyDeltas(group, deltas);
+
+            for (int k = 0; k < accepted.size(); k++) {
+                int index = acceptedIndexes.get(k);
+                results.set(index, new BatchExpenseResponse.ItemResult(index, accepted.get(k).getId(), null));
+            }
+        }
+
+        return new BatchExpenseResponse(accepted.size(), requests.size() - accepted.size(), results);
+    }
+
+    private void validateItem(AddExpenseRequest request, Set<String> memberUsernames) {
+        if (request == null) {
+            throw new ValidationException("Expense is missing.");
+        }
+
+        Set<ConstraintViolation<AddExpenseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+        }
+
+        expenseService.prepareSplits(request);
+
+        if (!memberUsernames.contains(request.getPaidBy().trim().toLowerCase())) {
+            throw new ValidationException("Payer '" + request.getPaidBy() + "' is not a member of this group.");
+        }
+        for (ExpenseSplitDetail detail : request.getSplitDetails()) {
+            if (!memberUsernames.contains(detail.getMemberUsername().trim().toLowerCase())) {
+                throw new ValidationException("Split member '" + detail.getMemberUsername() + "' is not a member of this group.");
+            }
+        }
+    }
+
+    private Expense buildExpense(Group group, AddExpenseRequest request, OffsetDateTime createdAt) {
+        Expense expense = new Expense();
+        expense.setGroup(group);
+        expense.setAmount(request.getAmount());
+        expense.setDescription(request.getDescription());
+        expense.setPaidByUsername(request.getPaidBy().toLowerCase());
+        expense.setCreatedAt(createdAt);
+        expense.setSplits(request.getSplitDetails().stream()
+                .map(detail -> expenseService.createExpenseSplitFromDetail(expense, detail))
+                .collect(Collectors.toList()));
+        return expense;
+    }
+}
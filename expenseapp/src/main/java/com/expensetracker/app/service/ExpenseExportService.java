@@ -0,0 +1,171 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ValidationException;
+import com.expensetracker.app.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Streams a group's expenses straight to an output stream for accounting exports.
+ * Rows are read through a forward-only cursor and written as they arrive, so memory
+ * use does not depend on the size of the group's history.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseExportService {
+
+    private static final String CSV_HEADER =
+            "expense_id,created_at,description,amount,paid_by,member_username,owed_amount,paid_amount,net_balance";
+
+    // First characters that make Excel, LibreOffice and Google Sheets read a cell as a formula
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final ExpenseRepository expenseRepository;
+    private final GroupMembershipService groupMembershipService;
+    private final ObjectMapper objectMapper;
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        ExportFormat(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        public static ExportFormat fromParam(String format) {
+            for (ExportFormat value : values()) {
+                if (value.fileExtension.equalsIgnoreCase(format)) {
+                    return value;
+                }
+            }
+            throw new ValidationException("Unsupported export format '" + format + "'. Use csv or ndjson.");
+        }
+    }
+
+    /**
+     * Checks that the user may export the group. Call before the response is committed.
+     */
+    @Transactional(readOnly = true)
+    public void checkExportAllowed(Long groupId, String currentUsername) {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to export expenses of this group.");
+    }
+
+    /**
+     * Writes every expense of the group to 'out'.
+     * CSV has one line per split. NDJSON has one JSON object per expense with its splits nested.
+     */
+    @Transactional(readOnly = true)
+    public void export(Long groupId, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        try (Stream<Object[]> rows = expenseRepository.streamLedgerRowsByGroupId(groupId)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(rows.iterator(), writer);
+            } else {
+                writeNdjson(rows.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Iterator<Object[]> rows, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(row[i]));
+            }
+            writer.write('\n');
+        }
+    }
+
+    private void writeNdjson(Iterator<Object[]> rows, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.setRootValueSeparator(null);
+
+        // Rows are ordered by expense, so the splits of one expense are consecutive
+        Long currentExpenseId = null;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            Long expenseId = (Long) row[0];
+
+            if (!Objects.equals(expenseId, currentExpenseId)) {
+                if (currentExpenseId != null) {
+                    endExpense(json, writer);
+                }
+                currentExpenseId = expenseId;
+                json.writeStartObject();
+                json.writeNumberField("id", expenseId);
+                json.writeStringField("createdAt", Objects.toString(row[1], null));
+                json.writeStringField("description", (String) row[2]);
+                json.writeNumberField("amount", (BigDecimal) row[3]);
+                json.writeStringField("paidBy", (String) row[4]);
+                json.writeArrayFieldStart("splits");
+            }
+
+            if (row[5] != null) {
+                json.writeStartObject();
+                json.writeStringField("memberUsername", (String) row[5]);
+                json.writeNumberField("owedAmount", (BigDecimal) row[6]);
+                json.writeNumberField("paidAmount", (BigDecimal) row[7]);
+                json.writeNumberField("netBalance", (BigDecimal) row[8]);
+                json.writeEndObject();
+            }
+        }
+        if (currentExpenseId != null) {
+            endExpense(json, writer);
+        }
+    }
+
+    private void endExpense(JsonGenerator json, Writer writer) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString()
+                : value instanceof OffsetDateTime ? value.toString()
+                : String.valueOf(value);
+        // Spreadsheets run text cells that start like a formula; a leading quote keeps them text.
+        // Numbers are left alone, so negative amounts stay numeric.
+        if (value instanceof String && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,225 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.entity.PersonalExpense;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.entity.UserCategoryMonthRollup;
+import com.expensetracker.app.repository.PersonalExpenseRepository;
+import com.expensetracker.app.repository.UserCategoryMonthRollupRepository;
+import com.expensetracker.app.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the user_category_month_rollup table.
+ *
+ * Writers of personal expenses first call {@link #lockRollups(Long)}, which takes a row
+ * lock on the user and builds the rollups if the user has none yet, and then
+ * {@link #add}, {@link #remove} or {@link #replace} in the same transaction. Two writers
+ * of the same user are therefore serialized and no delta can be lost; writers of different
+ * users do not block each other. A nightly job rebuilds every user's rollups from the
+ * expenses, which also clears the rounding drift of repeated double additions.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpenseRollupService {
+
+    private final UserCategoryMonthRollupRepository rollupRepository;
+    private final PersonalExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * What one expense adds to its bucket.
+     */
+    public record Contribution(ExpenseCategory category, LocalDate monthStart, double spent, double saved) {
+
+        public static Contribution of(PersonalExpense expense) {
+            return of(expense.getCategory(), expense.getExpenseDate(), expense.getTotalSpent(), expense.getAmountSaved());
+        }
+
+        static Contribution of(ExpenseCategory category, OffsetDateTime expenseDate, Double spent, Double saved) {
+            return new Contribution(category, monthOf(expenseDate),
+                    spent != null ? spent : 0.0, saved != null ? saved : 0.0);
+        }
+
+        boolean sameBucket(Contribution other) {
+            return category == other.category && monthStart.equals(other.monthStart);
+        }
+    }
+
+    /**
+     * All-time totals of the user per category, highest spending first, read from the rollups.
+     */
+    @Transactional
+    public List<CategoryWiseExpenseDTO> getCategoryWiseSummary(Long userId) {
+        if (!Boolean.TRUE.equals(userRepository.findRollupsInitialized(userId))) {
+            lockRollups(userId);
+        }
+
+        List<CategoryWiseExpenseDTO> categories = rollupRepository.sumByCategory(userId);
+        double totalSpent = categories.stream().mapToDouble(CategoryWiseExpenseDTO::getTotalSpent).sum();
+        for (CategoryWiseExpenseDTO category : categories) {
+            category.setPercentageOfTotal(totalSpent > 0 ? category.getTotalSpent() / totalSpent * 100 : 0.0);
+        }
+        return categories;
+    }
+
+    /**
+     * Locks the user's rollups for the current transaction and builds them from the
+     * existing expenses if this user has never had them.
+     * Must be called before the caller creates, changes or deletes an expense of the user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<User> lockRollups(Long userId) {
+        Optional<User> locked = userRepository.findByIdForUpdate(userId);
+        locked.filter(user -> !Boolean.TRUE.equals(user.getRollupsInitialized()))
+                .ifPresent(this::rebuild);
+        return locked;
+    }
+
+    /**
+     * Counts a new expense. The caller must hold the lock taken by {@link #lockRollups(Long)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Long userId, Contribution contribution) {
+        apply(userId, contribution.category(), contribution.monthStart(),
+                contribution.spent(), contribution.saved(), 1);
+    }
+
+    /**
+     * Uncounts a deleted expense. The caller must hold the lock taken by {@link #lockRollups(Long)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void remove(Long userId, Contribution contribution) {
+        apply(userId, contribution.category(), contribution.monthStart(),
+                -contribution.spent(), -contribution.saved(), -1);
+    }
+
+    /**
+     * Uncounts several deleted expenses with one update per bucket.
+     * The caller must hold the lock taken by {@link #lockRollups(Long)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeAll(Long userId, Collection<Contribution> contributions) {
+        Map<String, Contribution> buckets = new LinkedHashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (Contribution contribution : contributions) {
+            String key = contribution.category() + "|" + contribution.monthStart();
+            buckets.merge(key, contribution, (a, b) -> new Contribution(a.category(), a.monthStart(),
+                    a.spent() + b.spent(), a.saved() + b.saved()));
+            counts.merge(key, 1L, Long::sum);
+        }
+        buckets.forEach((key, total) -> apply(userId, total.category(), total.monthStart(),
+                -total.spent(), -total.saved(), -counts.get(key)));
+    }
+
+    /**
+     * Moves an edited expense from what it contributed before to what it contributes now,
+     * which may be another category or month. The caller must hold the lock taken by
+     * {@link #lockRollups(Long)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void replace(Long userId, Contribution before, Contribution after) {
+        if (before.sameBucket(after)) {
+            apply(userId, after.category(), after.monthStart(),
+                    after.spent() - before.spent(), after.saved() - before.saved(), 0);
+        } else {
+            remove(userId, before);
+            add(userId, after);
+        }
+    }
+
+    /**
+     * Recomputes every user's rollups from scratch, one user per transaction.
+     */
+    @Scheduled(cron = "${app.rollup.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        List<Long> userIds = userRepository.findAllIds();
+        for (Long userId : userIds) {
+            transactionTemplate.executeWithoutResult(status ->
+                    userRepository.findByIdForUpdate(userId).ifPresent(this::rebuild));
+        }
+        log.info("Rebuilt the expense rollups of {} users", userIds.size());
+    }
+
+    /**
+     * The month an expense is counted in: the first day of its month, in UTC.
+     */
+    static LocalDate monthOf(OffsetDateTime expenseDate) {
+        return expenseDate.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+
+    private void apply(Long userId, ExpenseCategory category, LocalDate monthStart,
+                       double spent, double saved, long count) {
+        if (spent == 0 && saved == 0 && count == 0) {
+            return;
+        }
+
+        UserCategoryMonthRollup rollup = rollupRepository.findBucket(userId, category, monthStart)
+                .orElseGet(() -> UserCategoryMonthRollup.builder()
+                        .user(userRepository.getReferenceById(userId))
+                        .category(category)
+                        .monthStart(monthStart)
+                        .totalSpent(0.0)
+                        .amountSaved(0.0)
+                        .expenseCount(0L)
+                        .build());
+
+        long expenseCount = rollup.getExpenseCount() + count;
+        if (expenseCount <= 0) {
+            if (rollup.getId() != null) {
+                rollupRepository.delete(rollup);
+            }
+            return;
+        }
+        rollup.setTotalSpent(rollup.getTotalSpent() + spent);
+        rollup.setAmountSaved(rollup.getAmountSaved() + saved);
+        rollup.setExpenseCount(expenseCount);
+        rollupRepository.save(rollup);
+    }
+
+    private void rebuild(User user) {
+        rollupRepository.deleteByUserId(user.getId());
+
+        Map<String, UserCategoryMonthRollup> buckets = new LinkedHashMap<>();
+        for (Object[] row : expenseRepository.findRollupSourcesByUserId(user.getId())) {
+            Contribution contribution = Contribution.of((ExpenseCategory) row[0], (OffsetDateTime) row[1],
+                    (Double) row[2], (Double) row[3]);
+            UserCategoryMonthRollup bucket = buckets.computeIfAbsent(
+                    contribution.category() + "|" + contribution.monthStart(),
+                    key -> UserCategoryMonthRollup.builder()
+                            .user(user)
+                            .category(contribution.category())
+                            .monthStart(contribution.monthStart())
+                            .totalSpent(0.0)
+                            .amountSaved(0.0)
+                            .expenseCount(0L)
+                            .build());
+            bucket.setTotalSpent(bucket.getTotalSpent() + contribution.spent());
+            bucket.setAmountSaved(bucket.getAmountSaved() + contribution.saved());
+            bucket.setExpenseCount(bucket.getExpenseCount() + 1);
+        }
+        rollupRepository.saveAll(new ArrayList<>(buckets.values()));
+
+        user.setRollupsInitialized(true);
+    }
+}
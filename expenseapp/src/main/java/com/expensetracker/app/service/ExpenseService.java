@@ -1,23 +1,38 @@
 package com.expensetracker.app.service;
 
 import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.PageCursor;
+import com.expensetracker.app.dto.SplitStrategy;
 import com.expensetracker.app.dto.ExpenseSplitDetail;
+import com.expensetracker.app.dto.GroupActivityResponse;
 import com.expensetracker.app.entity.Expense;
 import com.expensetracker.app.entity.ExpenseSplit;
 import com.expensetracker.app.entity.Group;
 import com.expensetracker.app.repository.ExpenseRepository;
 import com.expensetracker.app.repository.GroupRepository;
+import com.expensetracker.app.exception.PreconditionFailedException;
 import com.expensetracker.app.exception.ResourceNotFoundException;
 import com.expensetracker.app.exception.ValidationException;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.security.access.AccessDeniedException;
 
@@ -25,13 +40,26 @@ import org.springframework.security.access.AccessDeniedException;
 public class ExpenseService {
 
     private static final BigDecimal TOLERANCE = new BigDecimal("0.01");
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
     private final ExpenseRepository expenseRepository;
     private final GroupRepository groupRepository;
+    private final GroupBalanceService groupBalanceService;
+    private final GroupMembershipService groupMembershipService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public ExpenseService(ExpenseRepository expenseRepository, GroupRepository groupRepository) {
+    public ExpenseService(ExpenseRepository expenseRepository, GroupRepository groupRepository,
+                          GroupBalanceService groupBalanceService, GroupMembershipService groupMembershipService,
+                          ApplicationEventPublisher eventPublisher) {
         this.expenseRepository = expenseRepository;
         this.groupRepository = groupRepository;
+        this.groupBalanceService = groupBalanceService;
+        this.groupMembershipService = groupMembershipService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -41,33 +69,15 @@ public class ExpenseService {
     public Expense createExpense(Long groupId, AddExpenseRequest request, String currentUsername)
             throws ResourceNotFoundException, ValidationException {
         
-        Group group = groupRepository.findByIdWithMembers(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-        
-        System.out.println("=== DEBUG: CREATE EXPENSE MEMBERSHIP CHECK ===");
-        System.out.println("DEBUG: Group ID: " + groupId);
-        System.out.println("DEBUG: Current User: " + currentUsername);
-        System.out.println("DEBUG: Request PaidBy: " + request.getPaidBy());
-        System.out.println("DEBUG: Group Members Count: " + (group.getMembers() != null ? group.getMembers().size() : 0));
-        
-        if (group.getMembers() != null) {
-            System.out.println("DEBUG: All Group Members:");
-            group.getMembers().forEach(user -> {
-                String username = user.getUsername();
-                boolean isMatch = username.equalsIgnoreCase(currentUsername);
-                System.out.println("  - " + username + (isMatch ? " *** MATCHES CURRENT USER ***" : ""));
-            });
-        }
-
-        boolean isMemberResult = group.isMember(currentUsername);
-        System.out.println("DEBUG: group.isMember('" + currentUsername + "') = " + isMemberResult);
-        System.out.println("=============================================");
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User '" + currentUsername + "' is not authorized to add expenses to this group. User is not a member.");
+        // Only the ID is used: ledger lock and foreign keys
+        Group group = groupRepository.getReferenceById(groupId);
 
-        if (!isMemberResult) {
-            throw new AccessDeniedException("User '" + currentUsername + "' is not authorized to add expenses to this group. User is not a member.");
-        }
+        prepareSplits(request);
 
-        validateSplitTotals(request);
+        // Serialize with other writers of this group's balance ledger
+        groupBalanceService.lockLedger(group);
 
         Expense newExpense = new Expense();
         newExpense.setGroup(group);
@@ -84,15 +94,22 @@ public class ExpenseService {
 
         savedExpense.setSplits(splits);
 
+        groupBalanceService.applyDeltas(group, GroupBalanceService.netByMember(splits));
+
+        eventPublisher.publishEvent(expenseEvent(GroupEvent.EXPENSE_CREATED, savedExpense));
         return savedExpense;
     }
 
     /**
      * Updates an existing expense.
+     * When expectedVersion is given (from If-Match), the update only happens if the expense is
+     * still at that version. A concurrent update that commits first fails the version check of
+     * the UPDATE statement instead of being silently overwritten.
      */
     @Transactional
-    public Expense updateExpense(Long groupId, Long expenseId, AddExpenseRequest request, String currentUsername)
-            throws ResourceNotFoundException, ValidationException {
+    public Expense updateExpense(Long groupId, Long expenseId, AddExpenseRequest request, String currentUsername,
+                                 Long expectedVersion)
+            throws ResourceNotFoundException, ValidationException, PreconditionFailedException {
         
         System.out.println("DEBUG: Updating expense - Group ID: " + groupId + ", Expense ID: " + expenseId);
         System.out.println("DEBUG: Current User: " + currentUsername);
@@ -104,40 +121,125 @@ public class ExpenseService {
             throw new ResourceNotFoundException("Expense", "id", expenseId);
         }
 
-        Group group = groupRepository.findByIdWithMembers(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-                
-        System.out.println("DEBUG: Group Members Count for Update: " + (group.getMembers() != null ? group.getMembers().size() : 0));
-        
-        if (!group.isMember(currentUsername)) {
-            throw new AccessDeniedException("User is not authorized to update expenses in this group.");
-        }
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to update expenses in this group.");
+        Group group = existingExpense.getGroup();
 
         if (!existingExpense.getPaidByUsername().equalsIgnoreCase(currentUsername)) {
             throw new AccessDeniedException("Only the user who paid for this expense can update it.");
         }
 
-        validateSplitTotals(request);
+        if (expectedVersion != null && !expectedVersion.equals(existingExpense.getVersion())) {
+            throw new PreconditionFailedException("Expense " + expenseId + " was modified by another request.");
+        }
+
+        prepareSplits(request);
 
         existingExpense.setAmount(request.getAmount());
         existingExpense.setDescription(request.getDescription());
 
-        existingExpense.getSplits().clear();
-        
-        List<ExpenseSplit> newSplits = request.getSplitDetails().stream()
-                .map(detail -> createExpenseSplitFromDetail(existingExpense, detail))
-                .collect(Collectors.toList());
-        
-        existingExpense.getSplits().addAll(newSplits);
+        // Diff by member: unchanged splits are left alone, so a description-only edit writes no split rows
+        Map<String, ExpenseSplitDetail> incoming = indexByMember(request.getSplitDetails());
+        if (splitsDiffer(existingExpense.getSplits(), incoming)) {
+            // Lock the ledger before touching the splits so the old balances are still in place
+            groupBalanceService.lockLedger(group);
+            // Split rows are child entities, so editing them would not bump the expense version (its ETag)
+            entityManager.lock(existingExpense, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            Map<String, BigDecimal> balancesBefore = GroupBalanceService.netByMember(existingExpense.getSplits());
+
+            applySplitDiff(existingExpense, incoming);
+
+            groupBalanceService.applyDeltas(group, GroupBalanceService.delta(
+                    balancesBefore, GroupBalanceService.netByMember(existingExpense.getSplits())));
+        }
+
+        Expense savedExpense = expenseRepository.save(existingExpense);
+        eventPublisher.publishEvent(expenseEvent(GroupEvent.EXPENSE_UPDATED, savedExpense));
+        return savedExpense;
+    }
+
+    /**
+     * Retrieves one page of a group's expenses, newest first.
+     * The cursor is the opaque token returned with the previous page (null for the first page).
+     * The page size is clamped to [1, MAX_PAGE_SIZE].
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<Expense> getExpensesPage(Long groupId, String cursor, int size, String currentUsername) {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view expenses in this group.");
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor position = PageCursor.decode(cursor);
 
-        return expenseRepository.save(existingExpense);
+        // Read one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Expense> rows = position == null
+                ? expenseRepository.findFirstPageByGroupId(groupId, limit)
+                : expenseRepository.findPageByGroupIdBefore(groupId, position.getTimestamp(), position.getId(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Expense> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        // Load the splits of the whole page at once (avoids N+1 when the controller maps them)
+        if (!page.isEmpty()) {
+            expenseRepository.fetchSplitsForExpenses(page.stream().map(Expense::getId).collect(Collectors.toList()));
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Expense last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
     }
 
     /**
-     * Retrieves all expenses for a specific group, ordered by date.
+     * Computes the ETag of a page of expenses from the (id, version) pairs it would contain,
+     * without loading the expenses or their splits, after the same authorization checks as getExpensesPage.
      */
-    public List<Expense> getExpensesByGroupId(Long groupId) {
-        return expenseRepository.findByGroupIdOrderByCreatedAtDesc(groupId);
+    @Transactional(readOnly = true)
+    public String getExpensesPageEtag(Long groupId, String cursor, int size, String currentUsername) {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view expenses in this group.");
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor position = PageCursor.decode(cursor);
+
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Object[]> rows = position == null
+                ? expenseRepository.findFirstPageVersionsByGroupId(groupId, limit)
+                : expenseRepository.findPageVersionsByGroupIdBefore(groupId, position.getTimestamp(), position.getId(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        StringBuilder fingerprint = new StringBuilder();
+        for (Object[] row : hasMore ? rows.subList(0, pageSize) : rows) {
+            fingerprint.append(row[0]).append(':').append(row[1]).append(';');
+        }
+        return pageEtag(fingerprint, hasMore);
+    }
+
+    /**
+     * ETag of an already loaded page; equal to getExpensesPageEtag for the same rows.
+     */
+    public String getExpensesPageEtag(CursorPageResponse<Expense> page) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Expense expense : page.getItems()) {
+            fingerprint.append(expense.getId()).append(':').append(expense.getVersion()).append(';');
+        }
+        return pageEtag(fingerprint, page.isHasMore());
+    }
+
+    /**
+     * Reads only the current version of an expense, after the same authorization checks as
+     * getExpenseById. Lets a conditional GET answer 304 without hydrating the splits.
+     */
+    @Transactional(readOnly = true)
+    public Long getExpenseVersion(Long groupId, Long expenseId, String currentUsername) {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view expenses in this group.");
+
+        return expenseRepository.findVersionByIdAndGroupId(expenseId, groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", expenseId));
     }
 
     /**
@@ -153,14 +255,8 @@ public class ExpenseService {
         Expense expense = expenseRepository.findByIdAndGroupIdWithSplits(expenseId, groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", expenseId));
 
-        Group group = groupRepository.findByIdWithMembers(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
-                
-        System.out.println("DEBUG: Service - Group Members Count: " + (group.getMembers() != null ? group.getMembers().size() : 0));
-
-        if (!group.isMember(currentUsername)) {
-            throw new AccessDeniedException("User is not authorized to view expenses in this group.");
-        }
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view expenses in this group.");
 
         System.out.println("DEBUG: Service - Successfully loaded expense with " + 
                           (expense.getSplits() != null ? expense.getSplits().size() : 0) + " splits");
@@ -170,6 +266,143 @@ public class ExpenseService {
 
     // --- Private Helper Methods ---
 
+    /**
+     * Fills in the owed amount of every split detail when the request uses a split strategy,
+     * then validates the totals. Strategies are computed on long minor units (2 decimals) with
+     * largest-remainder rounding, so their totals always match the amount exactly.
+     */
+    void prepareSplits(AddExpenseRequest request) {
+        SplitStrategy strategy = request.getSplitStrategy();
+        List<ExpenseSplitDetail> details = request.getSplitDetails();
+
+        if (strategy == null) {
+            // Legacy behavior: client-computed owed amounts, checked with a 0.01 tolerance
+            for (ExpenseSplitDetail detail : details) {
+                if (detail.getOwedAmount() == null) {
+                    throw new ValidationException("Owed amount is required.");
+                }
+            }
+            validateSplitTotals(request);
+            return;
+        }
+
+        int count = details.size();
+        long total = toMinorUnits(request.getAmount(), "Total amount");
+
+        if (strategy == SplitStrategy.EXACT) {
+            long owedTotal = 0;
+            for (ExpenseSplitDetail detail : details) {
+                owedTotal += toMinorUnits(detail.getOwedAmount(), "Owed amount");
+            }
+            if (owedTotal != total) {
+                throw new ValidationException(String.format(
+                        "Expense split validation failed. Total amount (%s) does not match total owed (%s).",
+                        request.getAmount().toPlainString(), BigDecimal.valueOf(owedTotal, 2).toPlainString()));
+            }
+            return;
+        }
+
+        long[] weights = new long[count];
+        long weightTotal = 0;
+        for (int i = 0; i < count; i++) {
+            weights[i] = strategy == SplitStrategy.EQUAL
+                    ? 1
+                    : toMinorUnits(details.get(i).getShare(), "Share");
+            weightTotal += weights[i];
+        }
+        if (strategy == SplitStrategy.PERCENT && weightTotal != 100_00) {
+            throw new ValidationException("Split percentages must add up to exactly 100.");
+        }
+
+        long[] parts = SplitAllocator.allocate(total, weights);
+        for (int i = 0; i < count; i++) {
+            details.get(i).setOwedAmount(BigDecimal.valueOf(parts[i], 2));
+        }
+        validateSplitTotals(request);
+    }
+
+    /**
+     * Live event for the group's subscribers, delivered once the transaction commits.
+     */
+    private static GroupEvent expenseEvent(String name, Expense expense) {
+        return new GroupEvent(expense.getGroup().getId(), name, new GroupActivityResponse(
+                ExpenseActivitySource.TYPE, expense.getId(), expense.getCreatedAt(),
+                expense.getPaidByUsername(), expense.getDescription(), null, expense.getAmount()));
+    }
+
+    /**
+     * Indexes the requested splits by lower-cased member username, keeping the request order.
+     */
+    private static Map<String, ExpenseSplitDetail> indexByMember(List<ExpenseSplitDetail> details) {
+        Map<String, ExpenseSplitDetail> byMember = new LinkedHashMap<>();
+        for (ExpenseSplitDetail detail : details) {
+            if (byMember.put(detail.getMemberUsername().toLowerCase(), detail) != null) {
+                throw new ValidationException("Member '" + detail.getMemberUsername() + "' appears more than once in the split.");
+            }
+        }
+        return byMember;
+    }
+
+    private static boolean splitsDiffer(List<ExpenseSplit> existing, Map<String, ExpenseSplitDetail> incoming) {
+        if (existing.size() != incoming.size()) {
+            return true;
+        }
+        for (ExpenseSplit split : existing) {
+            ExpenseSplitDetail detail = incoming.get(split.getMemberUsername());
+            if (detail == null || !sameAmounts(split, detail)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameAmounts(ExpenseSplit split, ExpenseSplitDetail detail) {
+        return split.getOwedAmount().compareTo(detail.getOwedAmount().setScale(2, RoundingMode.HALF_UP)) == 0
+                && split.getPaidAmount().compareTo(detail.getPaidAmount().setScale(2, RoundingMode.HALF_UP)) == 0;
+    }
+
+    /**
+     * Brings the expense's splits in line with the request: members no longer present are removed
+     * (orphan delete), changed amounts are updated in place and new members are inserted.
+     */
+    private void applySplitDiff(Expense expense, Map<String, ExpenseSplitDetail> incoming) {
+        Map<String, ExpenseSplitDetail> remaining = new LinkedHashMap<>(incoming);
+
+        Iterator<ExpenseSplit> it = expense.getSplits().iterator();
+        while (it.hasNext()) {
+            ExpenseSplit split = it.next();
+            ExpenseSplitDetail detail = remaining.remove(split.getMemberUsername());
+            if (detail == null) {
+                it.remove();
+            } else if (!sameAmounts(split, detail)) {
+                ExpenseSplit updated = createExpenseSplitFromDetail(expense, detail);
+                split.setOwedAmount(updated.getOwedAmount());
+                split.setPaidAmount(updated.getPaidAmount());
+                split.setNetBalance(updated.getNetBalance());
+            }
+        }
+
+        for (ExpenseSplitDetail detail : remaining.values()) {
+            expense.getSplits().add(createExpenseSplitFromDetail(expense, detail));
+        }
+    }
+
+    private static String pageEtag(StringBuilder fingerprint, boolean hasMore) {
+        fingerprint.append(hasMore ? "more" : "end");
+        return DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long toMinorUnits(BigDecimal value, String fieldName) {
+        if (value == null) {
+            throw new ValidationException(fieldName + " is required.");
+        }
+        try {
+            return value.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ValidationException(fieldName + " must have at most two decimal places.", e);
+        }
+    }
+
     private void validateSplitTotals(AddExpenseRequest request) {
         BigDecimal totalOwed = request.getSplitDetails().stream()
                 .map(ExpenseSplitDetail::getOwedAmount)
@@ -192,15 +425,17 @@ public class ExpenseService {
         }
     }
 
-    private ExpenseSplit createExpenseSplitFromDetail(Expense expense, ExpenseSplitDetail detail) {
-        BigDecimal netBalance = detail.getPaidAmount().subtract(detail.getOwedAmount());
+    ExpenseSplit createExpenseSplitFromDetail(Expense expense, ExpenseSplitDetail detail) {
+        // setScale returns the same instance when the value already has 2 decimals
+        BigDecimal owedAmount = detail.getOwedAmount().setScale(2, RoundingMode.HALF_UP);
+        BigDecimal paidAmount = detail.getPaidAmount().setScale(2, RoundingMode.HALF_UP);
 
         ExpenseSplit split = new ExpenseSplit();
         split.setExpense(expense);
         split.setMemberUsername(detail.getMemberUsername().toLowerCase());
-        split.setOwedAmount(detail.getOwedAmount().setScale(2, RoundingMode.HALF_UP));
-        split.setPaidAmount(detail.getPaidAmount().setScale(2, RoundingMode.HALF_UP));
-        split.setNetBalance(netBalance.setScale(2, RoundingMode.HALF_UP));
+        split.setOwedAmount(owedAmount);
+        split.setPaidAmount(paidAmount);
+        split.setNetBalance(paidAmount.subtract(owedAmount));
 
         return split;
     }
@@ -19,12 +19,17 @@ public class ExpenseStatisticsService {
 
     private final PersonalExpenseRepository expenseRepository;
     private final PersonalExpenseGroupRepository expenseGroupRepository;
+    private final ExpenseRollupService rollupService;
 
-    @Transactional(readOnly = true)
+    /**
+     * All-time totals of the user, summed from the per-category monthly rollups.
+     */
+    @Transactional
     public ExpenseSummaryDTO getExpenseSummary(Long userId) {
-        Double totalSpent = expenseRepository.getTotalSpentByUserId(userId);
-        Double totalSaved = expenseRepository.getTotalSavedByUserId(userId);
-        Long totalExpenses = expenseRepository.countByUserId(userId);
+        List<CategoryWiseExpenseDTO> categories = rollupService.getCategoryWiseSummary(userId);
+        Double totalSpent = categories.stream().mapToDouble(CategoryWiseExpenseDTO::getTotalSpent).sum();
+        Double totalSaved = categories.stream().mapToDouble(CategoryWiseExpenseDTO::getTotalSaved).sum();
+        Long totalExpenses = categories.stream().mapToLong(CategoryWiseExpenseDTO::getExpenseCount).sum();
         Long totalGroups = expenseGroupRepository.countByUserId(userId);
         
         Double totalBudget = (totalSpent != null ? totalSpent : 0.0) + (totalSaved != null ? totalSaved : 0.0);
@@ -41,9 +46,9 @@ public class ExpenseStatisticsService {
         );
     }
 
-    @Transactional(readOnly = true)
+    @Transactional
     public List<CategoryWiseExpenseDTO> getCategoryWiseExpenseSummary(Long userId) {
-        return expenseRepository.getCategoryWiseExpenseSummary(userId);
+        return rollupService.getCategoryWiseSummary(userId);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,130 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.ActivityCursor;
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.GroupActivityResponse;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Builds a group's activity feed by merging every {@link GroupActivitySource}.
+ *
+ * The feed is ordered by (createdAt DESC, type DESC, id DESC). For a page of 'limit'
+ * entries each source is asked for at most limit + 1 events after the shared cursor,
+ * and the already sorted lists are merged with a heap keyed on their current head,
+ * so a page costs one bounded indexed query per source.
+ */
+@Service
+public class GroupActivityService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    static final Comparator<GroupActivityResponse> FEED_ORDER = Comparator
+            .comparing(GroupActivityResponse::getCreatedAt)
+            .thenComparing(GroupActivityResponse::getType)
+            .thenComparing(GroupActivityResponse::getId)
+            .reversed();
+
+    private final List<GroupActivitySource> sources;
+    private final GroupMembershipService groupMembershipService;
+
+    public GroupActivityService(List<GroupActivitySource> sources, GroupMembershipService groupMembershipService) {
+        Set<String> types = new HashSet<>();
+        for (GroupActivitySource source : sources) {
+            if (!types.add(source.type())) {
+                throw new IllegalStateException("Duplicate group activity type: " + source.type());
+            }
+        }
+        this.sources = List.copyOf(sources);
+        this.groupMembershipService = groupMembershipService;
+    }
+
+    /**
+     * Returns one page of the group's activity, newest first.
+     * The cursor is the opaque token returned with the previous page (null for the first page).
+     * The limit is clamped to [1, MAX_LIMIT].
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<GroupActivityResponse> getActivity(Long groupId, String cursor, int limit,
+                                                                 String currentUsername)
+            throws ResourceNotFoundException, ValidationException {
+
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view the activity of this group.");
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        ActivityCursor position = ActivityCursor.decode(cursor);
+
+        // One sorted run per source; the heap holds the head of each non-empty run
+        PriorityQueue<Run> heads = new PriorityQueue<>((a, b) -> FEED_ORDER.compare(a.head(), b.head()));
+        for (GroupActivitySource source : sources) {
+            List<GroupActivityResponse> events = position == null
+                    ? source.findBefore(groupId, null, 0L, pageSize + 1)
+                    : source.findBefore(groupId, position.getTimestamp(),
+                            boundaryId(source.type(), position), pageSize + 1);
+            if (!events.isEmpty()) {
+                heads.add(new Run(events));
+            }
+        }
+
+        List<GroupActivityResponse> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            Run run = heads.poll();
+            page.add(run.head());
+            if (run.advance()) {
+                heads.add(run);
+            }
+        }
+
+        // Every source was read one event past the page, so anything left over means more pages
+        boolean hasMore = !heads.isEmpty();
+        String nextCursor = null;
+        if (hasMore) {
+            GroupActivityResponse last = page.get(page.size() - 1);
+            nextCursor = new ActivityCursor(last.getCreatedAt(), last.getType(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Translates the shared cursor into the (createdAt, id) bound of one source.
+     * At the cursor's instant, sources whose type sorts before the cursor's type come
+     * later in the feed (all their events at that instant are still to be read), the
+     * cursor's own source continues below its id, and the others are already done.
+     */
+    private static long boundaryId(String type, ActivityCursor position) {
+        int order = type.compareTo(position.getType());
+        if (order < 0) {
+            return Long.MAX_VALUE;
+        }
+        return order == 0 ? position.getId() : 0L;
+    }
+
+    private static final class Run {
+        private final List<GroupActivityResponse> events;
+        private int index;
+
+        Run(List<GroupActivityResponse> events) {
+            this.events = events;
+        }
+
+        GroupActivityResponse head() {
+            return events.get(index);
+        }
+
+        boolean advance() {
+            return ++index < events.size();
+        }
+    }
+}
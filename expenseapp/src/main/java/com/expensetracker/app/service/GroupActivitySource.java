@@ -0,0 +1,28 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.GroupActivityResponse;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * A time-ordered stream of events of one type, merged into the group activity feed
+ * by {@link GroupActivityService}. New event types plug in by declaring another
+ * bean implementing this interface.
+ */
+public interface GroupActivitySource {
+
+    /**
+     * The event type, unique among sources; also the tie-breaker between sources
+     * for events created at the same instant.
+     */
+    String type();
+
+    /**
+     * Returns at most 'limit' events of the group ordered by (createdAt DESC, id DESC),
+     * starting strictly after (createdAt, id) in that order, or from the newest event
+     * when createdAt is null. Implementations should seek with an index on
+     * (group_id, created_at DESC, id DESC) and read only the columns of the feed.
+     */
+    List<GroupActivityResponse> findBefore(Long groupId, OffsetDateTime createdAt, long id, int limit);
+}
@@ -0,0 +1,181 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.MemberBalanceResponse;
+import com.expensetracker.app.dto.SettlementTransferResponse;
+import com.expensetracker.app.entity.ExpenseSplit;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.GroupMemberBalance;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.repository.ExpenseRepository;
+import com.expensetracker.app.repository.GroupMemberBalanceRepository;
+import com.expensetracker.app.repository.GroupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the group_member_balances ledger.
+ *
+ * Writers first call {@link #lockLedger(Group)}, which takes a row lock on the group
+ * and builds the ledger if it does not exist yet, and then {@link #applyDeltas(Group, Map)}
+ * in the same transaction. Two writers of the same group are therefore serialized and
+ * no delta can be lost; writers of different groups do not block each other.
+ */
+@Service
+@RequiredArgsConstructor
+public class GroupBalanceService {
+
+    private final GroupMemberBalanceRepository balanceRepository;
+    private final GroupRepository groupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupMembershipService groupMembershipService;
+
+    /**
+     * Returns the net balance of every member of the group that took part in an expense.
+     */
+    @Transactional
+    public List<MemberBalanceResponse> getBalances(Long groupId, String currentUsername) {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to view balances of this group.");
+        Group group = groupRepository.getReferenceById(groupId);
+
+        if (!Boolean.TRUE.equals(group.getBalancesInitialized())) {
+            lockLedger(group);
+        }
+
+        return balanceRepository.findByGroupIdOrderByMemberUsernameAsc(groupId).stream()
+                .map(b -> new MemberBalanceResponse(b.getMemberUsername(), b.getNetBalance()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the "A pays B" transfers that settle every member of the group.
+     * Balances are converted once to minor units (scale 2) and planned by {@link SettlementPlanner}.
+     */
+    @Transactional
+    public List<SettlementTransferResponse> getSettlementPlan(Long groupId, String currentUsername) {
+        List<MemberBalanceResponse> balances = getBalances(groupId, currentUsername);
+
+        long[] minorUnits = new long[balances.size()];
+        for (int i = 0; i < minorUnits.length; i++) {
+            minorUnits[i] = balances.get(i).getNetBalance().movePointRight(2)
+                    .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+
+        SettlementPlanner.Plan plan = SettlementPlanner.plan(minorUnits);
+
+        List<SettlementTransferResponse> transfers = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            transfers.add(new SettlementTransferResponse(
+                    balances.get(plan.from(i)).getMemberUsername(),
+                    balances.get(plan.to(i)).getMemberUsername(),
+                    BigDecimal.valueOf(plan.amount(i), 2)));
+        }
+        return transfers;
+    }
+
+    /**
+     * Locks the group's ledger for the current transaction and builds it from the
+     * existing expense splits if this group has never had one.
+     * Must be called before the caller changes any split of the group.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockLedger(Group group) {
+        Group locked = groupRepository.findByIdForUpdate(group.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", group.getId()));
+
+        if (!Boolean.TRUE.equals(locked.getBalancesInitialized())) {
+            rebuild(locked);
+        }
+    }
+
+    /**
+     * Adds the given per-member deltas to the ledger. Zero deltas are skipped.
+     * The caller must hold the lock taken by {@link #lockLedger(Group)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(Group group, Map<String, BigDecimal> deltas) {
+        Map<String, BigDecimal> nonZero = deltas.entrySet().stream()
+                .filter(e -> e.getValue().signum() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (nonZero.isEmpty()) {
+            return;
+        }
+
+        Map<String, GroupMemberBalance> existing = balanceRepository
+                .findByGroupIdAndMemberUsernameIn(group.getId(), nonZero.keySet()).stream()
+                .collect(Collectors.toMap(GroupMemberBalance::getMemberUsername, Function.identity()));
+
+        List<GroupMemberBalance> changed = new ArrayList<>(nonZero.size());
+        nonZero.forEach((member, delta) -> {
+            GroupMemberBalance balance = existing.get(member);
+            if (balance == null) {
+                balance = GroupMemberBalance.builder()
+                        .group(group)
+                        .memberUsername(member)
+                        .netBalance(BigDecimal.ZERO)
+                        .build();
+            }
+            balance.setNetBalance(balance.getNetBalance().add(delta));
+            changed.add(balance);
+        });
+        balanceRepository.saveAll(changed);
+    }
+
+    /**
+     * The members among the given (lower-case) usernames whose net balance in the group is not zero.
+     * The caller must hold the lock taken by {@link #lockLedger(Group)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<String> findUnsettledMembers(Group group, Collection<String> memberUsernames) {
+        return balanceRepository.findByGroupIdAndMemberUsernameIn(group.getId(), memberUsernames).stream()
+                .filter(b -> b.getNetBalance().signum() != 0)
+                .map(GroupMemberBalance::getMemberUsername)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sums the net balance of a set of splits per member.
+     */
+    public static Map<String, BigDecimal> netByMember(Collection<ExpenseSplit> splits) {
+        Map<String, BigDecimal> net = new HashMap<>();
+        if (splits != null) {
+            for (ExpenseSplit split : splits) {
+                net.merge(split.getMemberUsername(), split.getNetBalance(), BigDecimal::add);
+            }
+        }
+        return net;
+    }
+
+    /**
+     * Difference between the balances after and before a change of splits.
+     */
+    public static Map<String, BigDecimal> delta(Map<String, BigDecimal> before, Map<String, BigDecimal> after) {
+        Map<String, BigDecimal> delta = new HashMap<>(after);
+        before.forEach((member, amount) -> delta.merge(member, amount.negate(), BigDecimal::add));
+        return delta;
+    }
+
+    private void rebuild(Group group) {
+        balanceRepository.deleteByGroupId(group.getId());
+
+        List<GroupMemberBalance> balances = expenseRepository.sumNetBalanceByMember(group.getId()).stream()
+                .map(row -> GroupMemberBalance.builder()
+                        .group(group)
+                        .memberUsername((String) row[0])
+                        .netBalance((BigDecimal) row[1])
+                        .build())
+                .collect(Collectors.toList());
+        balanceRepository.saveAll(balances);
+
+        group.setBalancesInitialized(true);
+    }
+}
@@ -0,0 +1,23 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.GroupActivityResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Something that happened in a group and is pushed to its live subscribers.
+ * Published as an application event inside the writing transaction and
+ * delivered by {@link GroupEventService} only once that transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class GroupEvent {
+
+    public static final String EXPENSE_CREATED = "EXPENSE_CREATED";
+    public static final String EXPENSE_UPDATED = "EXPENSE_UPDATED";
+    public static final String ANNOUNCEMENT_CREATED = "ANNOUNCEMENT_CREATED";
+
+    private final Long groupId;
+    private final String name;
+    private final GroupActivityResponse payload;
+}
@@ -0,0 +1,311 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of the Server-Sent Events subscribers of each group.
+ *
+ * Writers never touch a connection: after their transaction commits, an event is only
+ * offered to each subscriber's bounded buffer, and a small sender pool drains the buffers
+ * to the clients. A subscriber whose buffer is full is too slow to keep up and is dropped;
+ * its client reconnects and reloads the current state. A periodic heartbeat goes through
+ * the same buffers, so dead or stalled connections are detected even in quiet groups.
+ *
+ * A send is a blocking socket write, so a client that stops reading without closing its
+ * connection can hold a sender thread. A watchdog drops every subscriber whose send has
+ * been running for longer than the send timeout, and gives the pool one more thread for
+ * as long as that send is stuck, so stalled clients cannot starve the other groups.
+ * Only a subscriber's own drain task touches its emitter (the emitter's lock is held for
+ * the whole write); a dropped subscriber is completed by that task once its write returns.
+ */
+@Service
+public class GroupEventService {
+
+    private static final GroupEvent HEARTBEAT = new GroupEvent(null, null, null);
+    // sendStartedAt of a send the watchdog has already given up on
+    private static final long EXPIRED = -1;
+
+    private final GroupMembershipService groupMembershipService;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final Executor sender;
+    private final ScheduledExecutorService heartbeat;
+
+    private final Map<Long, Set<Subscriber>> subscribersByGroup = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GroupEventService(GroupMembershipService groupMembershipService,
+                             @Value("${app.events.buffer-size:32}") int bufferSize,
+                             @Value("${app.events.timeout-ms:1800000}") long timeoutMs,
+                             @Value("${app.events.sender-threads:4}") int senderThreads,
+                             @Value("${app.events.send-timeout-ms:10000}") long sendTimeoutMs,
+                             @Value("${app.events.heartbeat-seconds:25}") long heartbeatSeconds) {
+        // Grows past senderThreads only while a stalled send holds a thread (see expireStalledSends)
+        this(groupMembershipService, bufferSize, timeoutMs, sendTimeoutMs, new ThreadPoolExecutor(senderThreads,
+                Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), daemon("sse-sender-")));
+        this.heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        long checkMs = Math.max(1, sendTimeoutMs / 2);
+        this.heartbeat.scheduleAtFixedRate(this::expireStalledSends, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    GroupEventService(GroupMembershipService groupMembershipService, int bufferSize, long timeoutMs,
+                      long sendTimeoutMs, Executor sender) {
+        this.groupMembershipService = groupMembershipService;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.sender = sender;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemon("sse-heartbeat-"));
+    }
+
+    /**
+     * Opens an event stream on a group for one of its members.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(Long groupId, String currentUsername) throws ResourceNotFoundException {
+        groupMembershipService.requireMember(groupId, currentUsername,
+                "User is not authorized to follow the events of this group.");
+
+        SseEmitter emitter = newEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(groupId, User.normalizeUsername(currentUsername), emitter, bufferSize);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribersByGroup.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        try {
+            // Flushes the response headers so the client knows the stream is open
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            remove(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Fans a committed event out to the group's subscribers. Runs on the writer's thread,
+     * so it only enqueues; it never blocks on a client.
+     */
+    @TransactionalEventListener
+    public void onGroupEvent(GroupEvent event) {
+        Set<Subscriber> subscribers = subscribersByGroup.get(event.getGroupId());
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+    }
+
+    /**
+     * Closes the event streams the given members (normalized usernames) have open on the group,
+     * e.g. because they were removed from it. Inside a transaction this happens after commit,
+     * so a removal that rolls back leaves the streams open.
+     */
+    public void unsubscribe(Long groupId, Collection<String> usernames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    close(groupId, usernames);
+                }
+            });
+        } else {
+            close(groupId, usernames);
+        }
+    }
+
+    int subscriberCount(Long groupId) {
+        Set<Subscriber> subscribers = subscribersByGroup.get(groupId);
+        return subscribers == null ? 0 : subscribers.size();
+    }
+
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void sendHeartbeats() {
+        subscribersByGroup.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(HEARTBEAT)));
+    }
+
+    /**
+     * Drops the subscribers whose current send has taken longer than the send timeout.
+     * Their sender threads stay blocked until the write fails, so each one is replaced
+     * in the pool until then.
+     */
+    void expireStalledSends() {
+        long now = System.nanoTime();
+        subscribersByGroup.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long started = subscriber.sendStartedAt.get();
+            if (started != 0 && started != EXPIRED && now - started > sendTimeoutNanos
+                    && subscriber.sendStartedAt.compareAndSet(started, EXPIRED)) {
+                resizeSenders(1);
+                drop(subscriber);
+                Thread thread = subscriber.sendingThread;
+                if (thread != null) {
+                    // May abort the write early; the drain task clears the flag afterwards
+                    thread.interrupt();
+                }
+            }
+        }));
+    }
+
+    private void close(Long groupId, Collection<String> usernames) {
+        Set<Subscriber> subscribers = subscribersByGroup.get(groupId);
+        if (subscribers != null) {
+            subscribers.stream()
+                    .filter(subscriber -> usernames.contains(subscriber.username))
+                    .toList()
+                    .forEach(this::drop);
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        if (sender instanceof ThreadPoolExecutor pool) {
+            synchronized (pool) {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribersByGroup.computeIfPresent(subscriber.groupId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // Completing the emitter waits for a write in progress, so the drain task does it
+    private void drop(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.scheduleDrain();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeat.shutdownNow();
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final Long groupId;
+        private final String username;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<GroupEvent> buffer;
+        // At most one drain task per subscriber, so its events are sent in order
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // System.nanoTime() when the current send started, 0 when none is running
+        private final AtomicLong sendStartedAt = new AtomicLong();
+        private volatile Thread sendingThread;
+        private volatile boolean closed;
+        private volatile boolean completed;
+
+        Subscriber(Long groupId, String username, SseEmitter emitter, int bufferSize) {
+            this.groupId = groupId;
+            this.username = username;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(GroupEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                drop(this);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            sendingThread = Thread.currentThread();
+            try {
+                GroupEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    sendStartedAt.set(System.nanoTime());
+                    try {
+                        send(event);
+                    } finally {
+                        if (sendStartedAt.getAndSet(0) == EXPIRED) {
+                            // The watchdog added a thread for this stuck send
+                            resizeSenders(-1);
+                        }
+                    }
+                }
+                if (closed && !completed) {
+                    // Dropped: slow to read, or stalled in a write
+                    completed = true;
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed; the next drain completes it
+                remove(this);
+            } finally {
+                sendingThread = null;
+                // Clears an interrupt by the watchdog that came after the write returned
+                Thread.interrupted();
+                draining.set(false);
+                // An event or a drop may have come after the last check but before the flag was cleared
+                if (closed ? !completed : !buffer.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        private void send(GroupEvent event) throws IOException {
+            if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .name(event.getName())
+                        .data(event.getPayload(), MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
@@ -1,57 +1,135 @@
 package com.expensetracker.app.service;
 
+import com.expensetracker.app.dto.CursorPageResponse;
 import com.expensetracker.app.dto.GroupResponse;
-import com.expensetracker.app.entity.Group;
-import com.expensetracker.app.entity.User;
+import com.expensetracker.app.dto.NameCursor;
+import com.expensetracker.app.dto.PageCursor;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
 import com.expensetracker.app.repository.GroupListingRepository;
-import com.expensetracker.app.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
+/**
+ * Lists the groups of a user, one page at a time.
+ *
+ * A page costs three queries whatever the number of groups or members: the user's id,
+ * the page of group rows, and the member count plus the first few usernames of every
+ * group on the page. Only projections are read, no Group or User entity is loaded.
+ */
 @Service
 public class GroupListingService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_MEMBER_PREVIEW = 5;
+    public static final int MAX_MEMBER_PREVIEW = 20;
+
+    public enum GroupSort {
+        NAME, CREATED_AT;
+
+        public static GroupSort from(String value) {
+            if (value == null || value.isBlank() || value.equalsIgnoreCase("name")) {
+                return NAME;
+            }
+            if (value.equalsIgnoreCase("createdAt") || value.equalsIgnoreCase("created_at")) {
+                return CREATED_AT;
+            }
+            throw new ValidationException("Unsupported sort '" + value + "'. Use name or createdAt.");
+        }
+    }
+
     @Autowired
     private GroupListingRepository groupListingRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserIdCache userIdCache;
 
+    /**
+     * Returns one page of the user's groups. Groups are ordered by name (A to Z), or newest
+     * first for CREATED_AT. 'members' holds the first 'memberPreview' usernames in alphabetical
+     * order and 'totalMembers' the full count.
+     * The page size and preview are clamped to [1, MAX_PAGE_SIZE] and [1, MAX_MEMBER_PREVIEW].
+     */
     @Transactional(readOnly = true)
-    public List<GroupResponse> getUserGroups(String username) {
-        
-        // 1. Find the User entity for the authenticated user
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found: " + username));
-        
-        // 2. Fetch the groups where the user is a member
-        List<Group> groups = groupListingRepository.findAllByMembersContaining(user);
-        
-        // 3. Map entities to DTOs
-        return groups.stream()
-            .map(this::mapToGroupResponse)
-            .collect(Collectors.toList());
+    public CursorPageResponse<GroupResponse> getUserGroups(String username, String cursor, int size,
+                                                           GroupSort sort, int memberPreview) {
+        Long userId = userIdCache.findUserId(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int preview = Math.max(1, Math.min(memberPreview, MAX_MEMBER_PREVIEW));
+
+        // One extra row tells whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Object[]> rows;
+        if (sort == GroupSort.CREATED_AT) {
+            PageCursor after = PageCursor.decode(cursor);
+            rows = after == null
+                    ? groupListingRepository.findFirstPageByCreatedAt(userId, limit)
+                    : groupListingRepository.findPageByCreatedAtBefore(userId, after.getTimestamp(), after.getId(), limit);
+        } else {
+            NameCursor after = NameCursor.decode(cursor);
+            rows = after == null
+                    ? groupListingRepository.findFirstPageByName(userId, limit)
+                    : groupListingRepository.findPageByNameAfter(userId, after.getName(), after.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<GroupResponse> groups = new ArrayList<>(rows.size());
+        Map<Long, GroupResponse> byId = new HashMap<>();
+        for (Object[] row : rows) {
+            GroupResponse group = GroupResponse.builder()
+                    .id((Long) row[0])
+                    .name((String) row[1])
+                    .description((String) row[2])
+                    .createdBy(row[3] != null ? (String) row[3] : "N/A")
+                    .createdAt((OffsetDateTime) row[4])
+                    .build();
+            groups.add(group);
+            byId.put(group.getId(), group);
+        }
+        fillMemberPreviews(byId, preview);
+
+        String nextCursor = null;
+        if (hasMore) {
+            GroupResponse last = groups.get(groups.size() - 1);
+            nextCursor = sort == GroupSort.CREATED_AT
+                    ? new PageCursor(last.getCreatedAt(), last.getId()).encode()
+                    : new NameCursor(last.getName(), last.getId()).encode();
+        }
+        return new CursorPageResponse<>(groups, nextCursor, hasMore);
     }
 
-    private GroupResponse mapToGroupResponse(Group group) {
-        // Collect usernames for the DTO
-        List<String> memberUsernames = group.getMembers().stream()
-            .map(User::getUsername)
-            .sorted()
-            .collect(Collectors.toList());
-            
-        return GroupResponse.builder()
-            .id(group.getId())
-            .name(group.getName())
-            .description(group.getDescription())
-            .createdBy(group.getCreatedBy() != null ? group.getCreatedBy().getUsername() : "N/A")
-            .createdAt(group.getCreatedAt())
-            .members(memberUsernames)
-            .totalMembers(memberUsernames.size())
-            .build();
+    /**
+     * Sets 'totalMembers' and the first 'preview' usernames of every group, in the order of the
+     * member listing (GroupService.getMembers), with two queries.
+     */
+    @Transactional(readOnly = true)
+    public void fillMemberPreviews(Map<Long, GroupResponse> groupsById, int preview) {
+        for (GroupResponse group : groupsById.values()) {
+            group.setMembers(new ArrayList<>(preview));
+            group.setTotalMembers(0);
+        }
+        if (groupsById.isEmpty()) {
+            return;
+        }
+        for (Object[] row : groupListingRepository.countMembers(groupsById.keySet())) {
+            groupsById.get(((Number) row[0]).longValue()).setTotalMembers(((Number) row[1]).intValue());
+        }
+        for (Object[] row : groupListingRepository.findMemberPreviews(groupsById.keySet(), preview)) {
+            groupsById.get(((Number) row[0]).longValue()).getMembers().add((String) row[1]);
+        }
     }
-}
\ No newline at end of file
+}
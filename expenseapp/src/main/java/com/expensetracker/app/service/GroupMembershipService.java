@@ -0,0 +1,182 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.repository.GroupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Answers "is user X a member of group G" for authorization checks.
+ *
+ * Member IDs are cached per group as a sorted long[] in a fixed-size, direct-mapped
+ * table (one slot per hash of the group ID, a colliding group replaces the previous one),
+ * so a cached check is a slot read plus a binary search and allocates nothing. A miss
+ * loads the group's user IDs from group_members only; groups larger than the cache limit
+ * are cached as "too large" and checked with a single EXISTS query instead. Entries expire after the TTL and are
+ * dropped whenever membership changes, see {@link #invalidate(Long)}.
+ */
+@Service
+public class GroupMembershipService {
+
+    private final GroupRepository groupRepository;
+    private final UserIdCache userIdCache;
+    private final long ttlNanos;
+    private final int maxCachedMembers;
+
+    private final AtomicReferenceArray<Entry> slots;
+    // Bumped on every invalidation, so a load that raced with one is not installed
+    private final AtomicLongArray generations;
+    private final int mask;
+
+    public GroupMembershipService(GroupRepository groupRepository,
+                                  UserIdCache userIdCache,
+                                  @Value("${app.membership.cache-slots:4096}") int cacheSlots,
+                                  @Value("${app.membership.ttl-seconds:60}") long ttlSeconds,
+                                  @Value("${app.membership.max-cached-members:10000}") int maxCachedMembers) {
+        this.groupRepository = groupRepository;
+        this.userIdCache = userIdCache;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxCachedMembers = maxCachedMembers;
+        int size = Integer.highestOneBit(Math.max(cacheSlots, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.generations = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Whether the user is a member of the group. Does not allocate when the group is cached.
+     */
+    public boolean isMember(long groupId, long userId) {
+        int slot = slot(groupId);
+        Entry entry = slots.get(slot);
+        if (entry != null && entry.groupId == groupId && System.nanoTime() - entry.loadedAt < ttlNanos) {
+            return entry.userIds != null
+                    ? Arrays.binarySearch(entry.userIds, userId) >= 0
+                    : groupRepository.existsMember(groupId, userId);
+        }
+        return load(groupId, userId, slot);
+    }
+
+    /**
+     * Whether the user with this username (case-insensitive) is a member of the group.
+     * Does not allocate when the user ID and the group are cached.
+     */
+    public boolean isMember(Long groupId, String username) {
+        if (groupId == null || username == null) {
+            return false;
+        }
+        long userId = userIdCache.userIdOrUnknown(username);
+        return userId != UserIdCache.UNKNOWN && isMember(groupId.longValue(), userId);
+    }
+
+    /**
+     * Throws unless the user is a member of the group.
+     *
+     * @throws ResourceNotFoundException if the group does not exist.
+     * @throws AccessDeniedException if it exists and the user is not a member.
+     */
+    public void requireMember(Long groupId, String username, String message) {
+        if (isMember(groupId, username)) {
+            return;
+        }
+        // Only failed checks pay for telling a missing group from a forbidden one
+        if (groupId == null || !groupRepository.existsById(groupId)) {
+            throw new ResourceNotFoundException("Group", "id", groupId);
+        }
+        throw new AccessDeniedException(message);
+    }
+
+    /**
+     * Drops the cached members of the group. Call it whenever members are added or removed.
+     * Inside a transaction the entry is dropped now and again after commit, so neither this
+     * transaction nor a concurrent one can leave the old member list cached.
+     */
+    public void invalidate(Long groupId) {
+        if (groupId == null) {
+            return;
+        }
+        evict(groupId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(groupId);
+                }
+            });
+        }
+    }
+
+    // For tests, whose groups are rolled back (and their ids reused once the schema is recreated)
+    // while the cache lives on
+    void clear() {
+        synchronized (generations) {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                generations.incrementAndGet(slot);
+                slots.set(slot, null);
+            }
+        }
+    }
+
+    private boolean load(long groupId, long userId, int slot) {
+        long generation = generations.get(slot);
+        // One row past the limit is enough to know the group is too large to cache
+        List<Long> ids = groupRepository.findMemberIds(groupId, PageRequest.of(0, maxCachedMembers + 1));
+
+        long[] userIds = null;
+        if (ids.size() <= maxCachedMembers) {
+            userIds = new long[ids.size()];
+            for (int i = 0; i < userIds.length; i++) {
+                userIds[i] = ids.get(i);
+            }
+            Arrays.sort(userIds);
+        }
+        Entry entry = new Entry(groupId, userIds, System.nanoTime());
+        synchronized (generations) {
+            if (generations.get(slot) == generation) {
+                slots.set(slot, entry);
+            }
+        }
+        return userIds != null
+                ? Arrays.binarySearch(userIds, userId) >= 0
+                : groupRepository.existsMember(groupId, userId);
+    }
+
+    private void evict(long groupId) {
+        int slot = slot(groupId);
+        synchronized (generations) {
+            generations.incrementAndGet(slot);
+            Entry entry = slots.get(slot);
+            if (entry != null && entry.groupId == groupId) {
+                slots.set(slot, null);
+            }
+        }
+    }
+
+    private int slot(long groupId) {
+        long h = groupId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static final class Entry {
+        final long groupId;
+        // Sorted member IDs, or null for a group too large to cache
+        final long[] userIds;
+        final long loadedAt;
+
+        Entry(long groupId, long[] userIds, long loadedAt) {
+            this.groupId = groupId;
+            this.userIds = userIds;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.expensetracker.app.service;
 import com.expensetracker.app.dto.*;
 import com.expensetracker.app.entity.*;
 import com.expensetracker.app.repository.*;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.access.AccessDeniedException;
@@ -14,12 +17,31 @@ import java.util.stream.Collectors;
 @Service
 public class GroupService {
 
+    public static final int MEMBER_PREVIEW = 5;
+    public static final int DEFAULT_MEMBER_PAGE_SIZE = 50;
+    public static final int MAX_MEMBER_PAGE_SIZE = 200;
+
     @Autowired
     private GroupRepository groupRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private GroupListingService groupListingService;
+
+    @Autowired
+    private GroupBalanceService groupBalanceService;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupEventService groupEventService;
+
     @Transactional(timeout = 600)
     public GroupResponse createGroup(CreateGroupRequest request, String creatorUsername) {
 
@@ -85,10 +107,13 @@ public class GroupService {
         return buildGroupResponse(group);
     }
 
+    /**
+     * One page of the user's groups; see {@link GroupListingService#getUserGroups}.
+     */
     @Transactional(readOnly = true)
-    public List<GroupResponse> getUserGroups(String username) {
-        /* Implementation omitted for brevity */
-        return Collections.emptyList();
+    public CursorPageResponse<GroupResponse> getUserGroups(String username, String cursor, int size,
+                                                           GroupListingService.GroupSort sort, int memberPreview) {
+        return groupListingService.getUserGroups(username, cursor, size, sort, memberPreview);
     }
 
     // =========================================================================
@@ -98,27 +123,22 @@ public class GroupService {
     @Transactional(readOnly = true)
     public GroupResponse getGroupById(Long groupId, String username) {
 
-        // 1. Fetch the Group Entity from the database
+        // 1. Access Control: Check if the requesting user is a member of the group
+        // before loading it. A missing group has no members, so it ends up here too.
+        if (!groupMembershipService.isMember(groupId, username)) {
+            // Not found or not authorized. Returning null causes the Controller to return 404.
+            return null;
+        }
+
+        // 2. Fetch the Group Entity from the database
         Optional<Group> groupOptional = groupRepository.findById(groupId);
 
         if (groupOptional.isEmpty()) {
-            // Group not found. Returning null causes the Controller to return 404.
             return null;
         }
 
         Group group = groupOptional.get();
 
-        // 2. Access Control: Check if the requesting user is a member of the group.
-        // This is crucial for security.
-        boolean isMember = group.getMembers().stream()
-                .anyMatch(user -> user.getUsername().equalsIgnoreCase(username));
-
-        if (!isMember) {
-            // User is not authorized. Returning null causes the Controller to return 404.
-            System.err.println("Access Denied: User " + username + " is not a member of Group ID " + groupId);
-            return null;
-        }
-
         // 3. If found and authorized, map the entity to the GroupResponse DTO
         return buildGroupResponse(group);
     }
@@ -128,55 +148,200 @@ public class GroupService {
     @Transactional
     public GroupResponse addMemberToGroup(Long groupId, String memberUsername, String requestingUsername) {
 
-        // 1. Fetch Group and perform initial check
-        Group group = groupRepository.findById(groupId)
-                .orElseThrow(() -> new RuntimeException("Group with ID " + groupId + " not found."));
-
-        // 2. Authorization Check: Check if the requesting user is an EXISTING member
-        boolean isMember = group.getMembers().stream()
-                .anyMatch(member -> member.getUsername().equalsIgnoreCase(requestingUsername));
-
-        if (!isMember) {
+        // 1. Authorization Check: Check if the requesting user is an EXISTING member
+        if (!groupMembershipService.isMember(groupId, requestingUsername)) {
             // If the requesting user is NOT a member, deny access.
             throw new AccessDeniedException("Access Denied: Only existing group members can add new members.");
         }
         // If the user is a member, authorization is granted.
 
+        // 2. Fetch and lock the Group, which serializes membership writers like prepareMemberChange does
+        Group group = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new RuntimeException("Group with ID " + groupId + " not found."));
+
         // 3. Find the User to be added
         User memberToAdd = userRepository.findByUsername(memberUsername.trim().toLowerCase())
                 .orElseThrow(() -> new RuntimeException("User '" + memberUsername + "' not found in the system."));
 
         // 4. Check if the user is ALREADY a member
-        boolean alreadyMember = group.getMembers().stream()
-                .anyMatch(member -> member.getUsername().equalsIgnoreCase(memberUsername));
-
-        if (alreadyMember) {
+        if (groupMembershipService.isMember(groupId, memberToAdd.getId())) {
             throw new RuntimeException("User '" + memberUsername + "' is already a member of this group.");
         }
 
-        // 5. Add the new member to the group's member set
-        group.getMembers().add(memberToAdd);
-        memberToAdd.getGroups().add(group);
-
-        // Save the updated group (transaction handles this, but explicit save is safe)
-        group = groupRepository.save(group);
+        // 5. Add the new member with a single insert, without loading the current members
+        groupRepository.insertMembers(groupId, List.of(memberToAdd.getId()));
+        groupMembershipService.invalidate(groupId);
 
         // 6. Return the updated group response
         return buildGroupResponse(group);
     }
 
+    /**
+     * Adds every listed user that is not a member yet. Usernames are resolved in one query and
+     * the missing group_members rows are written by one set-based INSERT, whatever their number.
+     */
+    @Transactional
+    public GroupMembersDiffResponse addMembers(Long groupId, List<String> usernames, String requestingUsername) {
+        MemberChange change = prepareMemberChange(groupId, usernames, requestingUsername,
+                "Access Denied: Only existing group members can add new members.");
+
+        List<String> added = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        change.split(added, unchanged, false);
+        if (!added.isEmpty()) {
+            groupRepository.insertMembers(groupId, change.idsOf(added));
+            groupMembershipService.invalidate(groupId);
+        }
+        return new GroupMembersDiffResponse(groupId, added, List.of(), unchanged, change.notFound,
+                groupRepository.countMembers(groupId));
+    }
+
+    /**
+     * Removes every listed user that is a member, with one DELETE. Only the creator removes other
+     * members; any other member can only remove themselves. The creator cannot be removed, and
+     * neither can a member whose balance in the group is not settled.
+     */
+    @Transactional
+    public GroupMembersDiffResponse removeMembers(Long groupId, List<String> usernames, String requestingUsername) {
+        MemberChange change = prepareMemberChange(groupId, usernames, requestingUsername,
+                "Access Denied: Only group members can remove members.");
+
+        Long creatorId = change.group.getCreatedBy().getId();
+        boolean selfRemoval = change.idsByUsername.keySet().equals(Set.of(User.normalizeUsername(requestingUsername)))
+                && change.notFound.isEmpty();
+        if (!selfRemoval && userIdCache.userIdOrUnknown(requestingUsername) != creatorId) {
+            throw new AccessDeniedException("Access Denied: Only the group creator can remove other members.");
+        }
+        if (change.idsByUsername.containsValue(creatorId)) {
+            throw new ValidationException("The creator of the group cannot be removed.");
+        }
+
+        List<String> removed = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        change.split(removed, unchanged, true);
+
+        // Removed members keep their ledger rows, so anything they owe or are owed must be settled first
+        groupBalanceService.lockLedger(change.group);
+        List<String> unsettled = groupBalanceService.findUnsettledMembers(change.group, removed);
+        if (!unsettled.isEmpty()) {
+            throw new ValidationException("Settle the balances of " + String.join(", ", unsettled)
+                    + " before removing them from the group.");
+        }
+
+        if (!removed.isEmpty()) {
+            groupRepository.deleteMembers(groupId, change.idsOf(removed));
+            groupMembershipService.invalidate(groupId);
+            // Events are not re-checked against membership, so their open streams must go
+            groupEventService.unsubscribe(groupId, removed);
+        }
+        return new GroupMembersDiffResponse(groupId, List.of(), removed, unchanged, change.notFound,
+                groupRepository.countMembers(groupId));
+    }
+
+    // Checks access, resolves the usernames and reads which of them are members, under the group row lock
+    private MemberChange prepareMemberChange(Long groupId, List<String> usernames, String requestingUsername,
+                                             String deniedMessage) {
+        groupMembershipService.requireMember(groupId, requestingUsername, deniedMessage);
+
+        Set<String> normalized = new TreeSet<>();
+        for (String username : usernames) {
+            if (username != null && !username.isBlank()) {
+                normalized.add(username.trim().toLowerCase());
+            }
+        }
+        if (normalized.isEmpty()) {
+            throw new ValidationException("Provide at least one username.");
+        }
+
+        // Serializes membership writers of this group, so the diff matches what gets written
+        Group group = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group", "id", groupId));
+
+        Map<String, Long> idsByUsername = new TreeMap<>();
+        for (Object[] row : userRepository.findIdsByUsernameIn(normalized)) {
+            idsByUsername.put(((String) row[1]).toLowerCase(), (Long) row[0]);
+        }
+        List<String> notFound = normalized.stream()
+                .filter(u -> !idsByUsername.containsKey(u))
+                .collect(Collectors.toList());
+
+        Set<Long> memberIds = idsByUsername.isEmpty()
+                ? Set.of()
+                : new HashSet<>(groupRepository.findMemberIdsIn(groupId, idsByUsername.values()));
+        return new MemberChange(group, idsByUsername, memberIds, notFound);
+    }
+
+    private record MemberChange(Group group, Map<String, Long> idsByUsername, Set<Long> memberIds,
+                                List<String> notFound) {
+
+        // Sorts the found usernames by whether they are members already
+        void split(List<String> toChange, List<String> unchanged, boolean changeMembers) {
+            idsByUsername.forEach((username, id) ->
+                    (memberIds.contains(id) == changeMembers ? toChange : unchanged).add(username));
+        }
+
+        List<Long> idsOf(List<String> usernames) {
+            return usernames.stream().map(idsByUsername::get).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * One page of a group's members, ordered by username. 'prefix' optionally keeps only
+     * the usernames starting with it (case-insensitive).
+     * The page size is clamped to [1, MAX_MEMBER_PAGE_SIZE].
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<String> getMembers(Long groupId, String cursor, int size, String prefix,
+                                                 String requestingUsername) {
+        groupMembershipService.requireMember(groupId, requestingUsername,
+                "Access Denied: Only group members can list the members.");
+
+        int pageSize = Math.max(1, Math.min(size, MAX_MEMBER_PAGE_SIZE));
+        String pattern = likePrefix(prefix);
+        NameCursor after = NameCursor.decode(cursor);
+
+        // One extra row tells whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Object[]> rows = after == null
+                ? groupRepository.findMemberPage(groupId, pattern, limit)
+                : groupRepository.findMemberPageAfter(groupId, pattern, after.getName(), after.getId(), limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<String> usernames = rows.stream().map(row -> (String) row[1]).collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = new NameCursor((String) last[2], (Long) last[0]).encode();
+        }
+        return new CursorPageResponse<>(usernames, nextCursor, hasMore);
+    }
+
+    // Group details carry the member count and a short preview; the full list is paginated by getMembers
     private GroupResponse buildGroupResponse(Group group) {
-        return GroupResponse.builder()
+        GroupResponse response = GroupResponse.builder()
                 .id(group.getId())
                 .name(group.getName())
                 .description(group.getDescription())
                 .createdBy(group.getCreatedBy().getUsername())
                 .createdAt(group.getCreatedAt())
-                .members(group.getMembers().stream()
-                        .map(User::getUsername)
-                        .sorted()
-                        .collect(Collectors.toList()))
-                .totalMembers(group.getMembers().size())
                 .build();
+        groupListingService.fillMemberPreviews(Map.of(group.getId(), response), MEMBER_PREVIEW);
+        return response;
+    }
+
+    // LIKE pattern matching the normalized usernames that start with 'prefix', wildcards escaped
+    private static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return "%";
+        }
+        String escaped = User.normalizeUsername(prefix)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
     }
 }
\ No newline at end of file
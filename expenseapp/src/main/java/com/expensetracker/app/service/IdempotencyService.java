@@ -0,0 +1,258 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.IdempotencyRecord;
+import com.expensetracker.app.exception.IdempotencyConflictException;
+import com.expensetracker.app.exception.ValidationException;
+import com.expensetracker.app.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs create requests that carry an Idempotency-Key at most once.
+ *
+ * The first request with a key runs its action and stores the serialized response,
+ * in the same transaction as the write, in idempotency_records. Retries replay that
+ * response without calling the action. Lookups go first to a bounded in-memory cache
+ * (LRU, entries expire after the TTL), then to the table. Concurrent requests with the
+ * same key on one instance wait for the first one instead of running in parallel;
+ * across instances the primary key of the table makes all but one write roll back.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final long waitMs;
+
+    private final Map<String, StoredResponse> recent;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.wait-ms:10000}") long waitMs) {
+        this.recordRepository = recordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitMs = waitMs;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Runs 'action' once per (scope, username, key) and returns its response, serialized as JSON.
+     *
+     * @param scope Name of the endpoint, so the same key can be used on different endpoints.
+     * @param request The request body; a retry must send the same body as the first request.
+     * @param successStatus The HTTP status of a successful first execution.
+     * @param action The write; its return value is the response body.
+     * @throws ValidationException if the key is too long or was already used with another body.
+     * @throws IdempotencyConflictException if a request with the key is still running after the wait time.
+     */
+    public StoredResponse execute(String scope, String username, String key, Object request,
+                                  HttpStatus successStatus, Supplier<?> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String recordKey = scope + ":" + username.toLowerCase() + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = getRecent(recordKey);
+        if (cached != null) {
+            return cached.replayFor(requestHash);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(recordKey, mine);
+        if (running != null) {
+            return await(running).replayFor(requestHash);
+        }
+
+        try {
+            StoredResponse response = findStored(recordKey);
+            if (response == null) {
+                try {
+                    response = transactionTemplate.execute(status ->
+                            runAndRecord(recordKey, requestHash, successStatus, action));
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance committed the same key first; its write stands, ours was rolled back
+                    response = findStored(recordKey);
+                    if (response == null) {
+                        throw e;
+                    }
+                }
+            }
+            putRecent(recordKey, response);
+            mine.complete(response);
+            // A fresh response is ours; one found in the table must belong to the same request
+            return response.replayed ? response.replayFor(requestHash) : response;
+        } catch (RuntimeException e) {
+            // Nothing was stored, so a later retry runs the action again
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(recordKey, mine);
+        }
+    }
+
+    /**
+     * Purges the records whose retry window has passed.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpiredRecords() {
+        recordRepository.deleteExpired(OffsetDateTime.now());
+    }
+
+    /**
+     * Empties the in-memory cache; the table still answers retries.
+     */
+    void clearRecent() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    private StoredResponse runAndRecord(String recordKey, String requestHash, HttpStatus successStatus,
+                                        Supplier<?> action) {
+        // An expired record the cleanup has not purged yet would make the insert fail on the primary key
+        recordRepository.deleteExpired(recordKey, OffsetDateTime.now());
+        String body = toJson(action.get());
+        OffsetDateTime now = OffsetDateTime.now();
+        recordRepository.insert(IdempotencyRecord.builder()
+                .recordKey(recordKey)
+                .requestHash(requestHash)
+                .responseStatus(successStatus.value())
+                .responseBody(body)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return new StoredResponse(successStatus.value(), body, requestHash, now.plus(ttl), false);
+    }
+
+    private StoredResponse findStored(String recordKey) {
+        return recordRepository.findById(recordKey)
+                .filter(r -> r.getExpiresAt().isAfter(OffsetDateTime.now()))
+                .map(r -> new StoredResponse(r.getResponseStatus(), r.getResponseBody(), r.getRequestHash(),
+                        r.getExpiresAt(), true))
+                .orElse(null);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this " + HEADER + " is still being processed.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for a request with the same " + HEADER + ".");
+        }
+    }
+
+    private StoredResponse getRecent(String recordKey) {
+        synchronized (recent) {
+            StoredResponse response = recent.get(recordKey);
+            if (response != null && response.expiresAt.isBefore(OffsetDateTime.now())) {
+                recent.remove(recordKey);
+                return null;
+            }
+            return response;
+        }
+    }
+
+    private void putRecent(String recordKey, StoredResponse response) {
+        synchronized (recent) {
+            recent.put(recordKey, response);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for " + HEADER + " replay.", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A response ready to be written back to the client.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class StoredResponse {
+        private final int status;
+        private final String body;
+        private final String requestHash;
+        private final OffsetDateTime expiresAt;
+        // True when the response comes from an earlier execution
+        private final boolean replayed;
+
+        StoredResponse replayFor(String requestHash) {
+            if (!this.requestHash.equals(requestHash)) {
+                throw new ValidationException(HEADER + " was already used for a different request.");
+            }
+            return replayed ? this : new StoredResponse(status, body, this.requestHash, expiresAt, true);
+        }
+
+        /**
+         * The stored JSON body with its status; replays are marked with an Idempotent-Replayed header.
+         */
+        public ResponseEntity<String> toResponseEntity() {
+            return ResponseEntity.status(status)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotent-Replayed", String.valueOf(replayed))
+                    .body(body);
+        }
+    }
+}
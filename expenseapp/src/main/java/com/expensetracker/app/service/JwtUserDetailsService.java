@@ -1,13 +1,10 @@
 package com.expensetracker.app.service;
 
 import com.expensetracker.app.repository.UserRepository;
-import com.expensetracker.app.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
-import java.util.*;
-
 @Service
 public class JwtUserDetailsService implements UserDetailsService {
 
@@ -16,12 +13,8 @@ public class JwtUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        // Only used at login; the entity is returned so the issued token can carry the user ID
+        return userRepository.findByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                new ArrayList<>()
-        );
     }
 }
@@ -0,0 +1,89 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt (password encoding at signup, the credential check at login) on a dedicated,
+ * fixed-size pool instead of on request threads.
+ *
+ * A burst of logins therefore occupies at most 'threads' cores and a bounded queue, while
+ * the servlet threads stay free for the rest of the API. Work that finds the queue full is
+ * rejected at once with a {@link ServiceBusyException}; the client retries after
+ * {@link #getRetryAfterSeconds()} rather than piling up behind the burst.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  AuthenticationManager authenticationManager,
+                                  @Value("${app.auth.hashing-threads:0}") int threads,
+                                  @Value("${app.auth.hashing-queue:64}") int queueCapacity,
+                                  @Value("${app.auth.retry-after-seconds:2}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.authenticationManager = authenticationManager;
+        this.retryAfterSeconds = retryAfterSeconds;
+        // 0 means one thread per core
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                r -> {
+                    Thread thread = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Encodes a new password on the hashing pool.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks the credentials of a login request on the hashing pool. The future fails with
+     * the AuthenticationException when they are wrong.
+     */
+    public CompletableFuture<Authentication> authenticate(Authentication request) {
+        return submit(() -> authenticationManager.authenticate(request));
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ServiceBusyException("Too many sign-in requests. Please retry shortly."));
+        }
+    }
+}
@@ -21,57 +21,7 @@ public class PersonalExpenseGroupService {
 
     private final PersonalExpenseGroupRepository expenseGroupRepository;
     private final UserRepository userRepository;
-
-    // Existing methods...
-
-    // Username-based methods for controller
-    @Transactional(readOnly = true)
-    public List<PersonalExpenseGroupDTO> getUserGroups(String username) {
-        User user = getUserByUsername(username);
-        return getAllGroupsByUserId(user.getId());
-    }
-
-    @Transactional(readOnly = true)
-    public PersonalExpenseGroupDTO getGroupById(Long groupId, String username) {
-        User user = getUserByUsername(username);
-        return getGroupById(groupId, user.getId());
-    }
-
-    @Transactional
-    public PersonalExpenseGroupDTO createGroup(PersonalExpenseGroup group, String username) {
-        User user = getUserByUsername(username);
-        return createGroup(group, user.getId());
-    }
-
-    @Transactional
-    public PersonalExpenseGroupDTO updateGroup(Long groupId, PersonalExpenseGroup updatedGroup, String username) {
-        User user = getUserByUsername(username);
-        return updateGroup(groupId, updatedGroup, user.getId());
-    }
-
-    @Transactional
-    public void deleteGroup(Long groupId, String username) {
-        User user = getUserByUsername(username);
-        deleteGroup(groupId, user.getId());
-    }
-
-    @Transactional(readOnly = true)
-    public List<PersonalExpenseGroupDTO> searchGroupsByTitle(String username, String title) {
-        User user = getUserByUsername(username);
-        return searchGroupsByTitle(user.getId(), title);
-    }
-
-    @Transactional(readOnly = true)
-    public List<PersonalExpenseGroupDTO> getGroupsByDateRange(String username, OffsetDateTime startDate, OffsetDateTime endDate) {
-        User user = getUserByUsername(username);
-        return getGroupsByDateRange(user.getId(), startDate, endDate);
-    }
-
-    // Helper method to get user by username
-    private User getUserByUsername(String username) {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
-    }
+    private final ExpenseRollupService rollupService;
 
     // Your existing methods remain the same...
     @Transactional(readOnly = true)
@@ -138,6 +88,8 @@ public class PersonalExpenseGroupService {
 
     @Transactional
     public void deleteGroup(Long groupId, Long userId) {
+        // The group's expenses are deleted with it (cascade); lock the rollups before reading them
+        rollupService.lockRollups(userId);
         PersonalExpenseGroup group = expenseGroupRepository.findById(groupId)
                 .orElseThrow(() -> new RuntimeException("Expense group not found with id: " + groupId));
         
@@ -145,6 +97,9 @@ public class PersonalExpenseGroupService {
             throw new RuntimeException("Access denied for this expense group");
         }
         
+        rollupService.removeAll(userId, group.getExpenses().stream()
+                .map(ExpenseRollupService.Contribution::of)
+                .collect(Collectors.toList()));
         expenseGroupRepository.delete(group);
         log.info("Deleted expense group with id: {}", groupId);
     }
@@ -1,11 +1,15 @@
 package com.expensetracker.app.service;
 
 import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.PageCursor;
 import com.expensetracker.app.dto.PersonalExpenseDTO;
+import com.expensetracker.app.dto.SearchCursor;
 import com.expensetracker.app.entity.ExpenseCategory;
 import com.expensetracker.app.entity.PersonalExpense;
 import com.expensetracker.app.entity.PersonalExpenseGroup;
 import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ValidationException;
 import com.expensetracker.app.repository.PersonalExpenseGroupRepository;
 import com.expensetracker.app.repository.PersonalExpenseRepository;
 import com.expensetracker.app.repository.UserRepository;
@@ -18,8 +22,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,35 +37,45 @@ public class PersonalExpenseService {
     private final PersonalExpenseRepository expenseRepository;
     private final PersonalExpenseGroupRepository expenseGroupRepository;
     private final UserRepository userRepository;
+    private final ExpenseRollupService rollupService;
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_KEYWORD_LENGTH = 100;
+
+    // Position before the newest possible expense, so the first page uses the same query as the others
+    private static final PageCursor FIRST_PAGE =
+            new PageCursor(OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC), Long.MAX_VALUE);
+
+    /**
+     * Retrieves one page of the user's expenses, newest first (expense date, then id).
+     * The cursor is the opaque token returned with the previous page (null for the first page).
+     * The page size is clamped to [1, MAX_PAGE_SIZE].
+     */
     @Transactional(readOnly = true)
-    public List<PersonalExpenseDTO> getAllExpensesByUserId(Long userId) {
-        log.info("Getting all expenses for user ID: {}", userId);
-        List<PersonalExpense> expenses = expenseRepository.findByUserId(userId);
-        log.info("Found {} expenses for user ID: {}", expenses.size(), userId);
-        return expenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageResponse<PersonalExpenseDTO> getExpensesPage(Long userId, String cursor, int size) {
+        return page(cursor, size, (position, limit) ->
+                expenseRepository.findPageByUserId(userId, position.getTimestamp(), position.getId(), limit));
     }
 
     @Transactional(readOnly = true)
     public PersonalExpenseDTO getExpenseById(Long expenseId, Long userId) {
         log.info("Getting expense by ID: {} for user ID: {}", expenseId, userId);
-        PersonalExpense expense = expenseRepository.findById(expenseId)
+        PersonalExpenseDTO expense = expenseRepository.findDtoById(expenseId)
                 .orElseThrow(() -> new RuntimeException("Expense not found with id: " + expenseId));
         
-        if (!expense.getUser().getId().equals(userId)) {
+        if (!expense.getUserId().equals(userId)) {
             throw new RuntimeException("Access denied for this expense");
         }
         
-        return convertToDTO(expense);
+        return expense;
     }
 
     @Transactional
     public PersonalExpenseDTO createExpense(PersonalExpense expense, Long userId) {
         log.info("Creating expense for user ID: {}", userId);
         
-        User user = userRepository.findById(userId)
+        User user = rollupService.lockRollups(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         
         expense.setUser(user);
@@ -86,6 +103,7 @@ public class PersonalExpenseService {
         expense.setUpdatedAt(OffsetDateTime.now());
         
         PersonalExpense savedExpense = expenseRepository.save(expense);
+        rollupService.add(userId, ExpenseRollupService.Contribution.of(savedExpense));
         log.info("Created expense with id: {} for user: {}", savedExpense.getId(), userId);
         
         return convertToDTO(savedExpense);
@@ -95,6 +113,9 @@ public class PersonalExpenseService {
     public PersonalExpenseDTO updateExpense(Long expenseId, PersonalExpense updatedExpense, Long userId) {
         log.info("Updating expense ID: {} for user ID: {}", expenseId, userId);
         
+        // Lock (and build if needed) the rollups before reading the expense, so that its old
+        // contribution cannot be changed by a concurrent edit in between
+        rollupService.lockRollups(userId);
         PersonalExpense existingExpense = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new RuntimeException("Expense not found with id: " + expenseId));
         
@@ -107,6 +128,8 @@ public class PersonalExpenseService {
             throw new RuntimeException("Amounts cannot be negative");
         }
         
+        ExpenseRollupService.Contribution before = ExpenseRollupService.Contribution.of(existingExpense);
+        
         // Update expense group if provided
         if (updatedExpense.getExpenseGroup() != null && updatedExpense.getExpenseGroup().getId() != null) {
             PersonalExpenseGroup group = expenseGroupRepository.findById(updatedExpense.getExpenseGroup().getId())
@@ -131,6 +154,7 @@ public class PersonalExpenseService {
         existingExpense.setUpdatedAt(OffsetDateTime.now());
         
         PersonalExpense savedExpense = expenseRepository.save(existingExpense);
+        rollupService.replace(userId, before, ExpenseRollupService.Contribution.of(savedExpense));
         log.info("Updated expense with id: {}", expenseId);
         
         return convertToDTO(savedExpense);
@@ -140,6 +164,7 @@ public class PersonalExpenseService {
     public void deleteExpense(Long expenseId, Long userId) {
         log.info("Deleting expense ID: {} for user ID: {}", expenseId, userId);
         
+        rollupService.lockRollups(userId);
         PersonalExpense expense = expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new RuntimeException("Expense not found with id: " + expenseId));
         
@@ -148,83 +173,106 @@ public class PersonalExpenseService {
         }
         
         expenseRepository.delete(expense);
+        rollupService.remove(userId, ExpenseRollupService.Contribution.of(expense));
         log.info("Deleted expense with id: {}", expenseId);
     }
 
     @Transactional(readOnly = true)
-    public List<PersonalExpenseDTO> getExpensesByCategory(Long userId, ExpenseCategory category) {
-        log.info("Getting expenses by category: {} for user ID: {}", category, userId);
-        List<PersonalExpense> expenses = expenseRepository.findByUserIdAndCategory(userId, category);
-        return expenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageResponse<PersonalExpenseDTO> getExpensesByCategory(Long userId, ExpenseCategory category,
+                                                                        String cursor, int size) {
+        return page(cursor, size, (position, limit) -> expenseRepository.findPageByUserIdAndCategory(
+                userId, category, position.getTimestamp(), position.getId(), limit));
     }
 
     @Transactional(readOnly = true)
-    public List<PersonalExpenseDTO> getExpensesByDateRange(Long userId, OffsetDateTime startDate, OffsetDateTime endDate) {
-        log.info("Getting expenses by date range: {} to {} for user ID: {}", startDate, endDate, userId);
-        List<PersonalExpense> expenses = expenseRepository.findByUserIdAndExpenseDateBetween(userId, startDate, endDate);
-        return expenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public CursorPageResponse<PersonalExpenseDTO> getExpensesByDateRange(Long userId, OffsetDateTime startDate,
+                                                                         OffsetDateTime endDate, String cursor, int size) {
+        return page(cursor, size, (position, limit) -> expenseRepository.findPageByUserIdAndDateRange(
+                userId, startDate, endDate, position.getTimestamp(), position.getId(), limit));
     }
 
     @Transactional(readOnly = true)
-    public List<PersonalExpenseDTO> getExpensesByGroupId(Long groupId, Long userId) {
-        log.info("Getting expenses by group ID: {} for user ID: {}", groupId, userId);
-        
-        PersonalExpenseGroup group = expenseGroupRepository.findById(groupId)
+    public CursorPageResponse<PersonalExpenseDTO> getExpensesByGroupId(Long groupId, Long userId,
+                                                                       String cursor, int size) {
+        Long ownerId = expenseGroupRepository.findOwnerId(groupId)
                 .orElseThrow(() -> new RuntimeException("Expense group not found with id: " + groupId));
         
-        if (!group.getUser().getId().equals(userId)) {
+        if (!ownerId.equals(userId)) {
             throw new RuntimeException("Access denied for this expense group");
         }
         
-        List<PersonalExpense> expenses = expenseRepository.findByExpenseGroupId(groupId);
-        log.info("Found {} expenses for group ID: {}", expenses.size(), groupId);
-        return expenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return page(cursor, size, (position, limit) -> expenseRepository.findPageByUserIdAndGroupId(
+                userId, groupId, position.getTimestamp(), position.getId(), limit));
     }
 
+    /**
+     * Searches the user's expenses by title and description, most relevant first: title
+     * starting with the keyword, then title containing it, then description containing it;
+     * newest first within each. Category and dates narrow the search when not null.
+     * Each rank is read as its own keyset page, so a page costs at most one index seek per rank
+     * and no query sorts every hit; the cursor carries (rank, expense date, id) of the last row.
+     *
+     * @throws ValidationException if the keyword is blank or too long, or the cursor is malformed.
+     */
     @Transactional(readOnly = true)
-    public List<PersonalExpenseDTO> searchExpenses(Long userId, String keyword) {
-        log.info("Searching expenses with keyword: '{}' for user ID: {}", keyword, userId);
-        
-        List<PersonalExpense> expensesByTitle = expenseRepository.findByUserIdAndTitleContainingIgnoreCase(userId, keyword);
-        List<PersonalExpense> expensesByDescription = expenseRepository.findByUserIdAndDescriptionContainingIgnoreCase(userId, keyword);
-        
-        // Combine and remove duplicates using a Set
-        List<PersonalExpense> combinedExpenses = new ArrayList<>(expensesByTitle);
-        for (PersonalExpense expense : expensesByDescription) {
-            if (!combinedExpenses.contains(expense)) {
-                combinedExpenses.add(expense);
+    public CursorPageResponse<PersonalExpenseDTO> searchExpenses(Long userId, String keyword, ExpenseCategory category,
+                                                                 OffsetDateTime startDate, OffsetDateTime endDate,
+                                                                 String cursor, int size) {
+        String term = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        if (term.isEmpty() || term.length() > MAX_KEYWORD_LENGTH) {
+            throw new ValidationException("Search keyword must be between 1 and " + MAX_KEYWORD_LENGTH + " characters.");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        SearchCursor position = SearchCursor.decode(cursor, PersonalExpenseRepository.RANK_TITLE_PREFIX);
+
+        String escaped = escapeLike(term);
+        int rank = position != null ? position.getRank() : PersonalExpenseRepository.RANK_TITLE_PREFIX;
+        OffsetDateTime expenseDate = position != null ? position.getTimestamp() : FIRST_PAGE.getTimestamp();
+        Long id = position != null ? position.getId() : FIRST_PAGE.getId();
+
+        expenseRepository.planSearchWithParameterValues();
+
+        // Read one extra row to know whether another page exists, moving on to the next rank when one runs out
+        List<PersonalExpenseDTO> rows = new ArrayList<>(pageSize + 1);
+        int lastRank = rank;
+        for (; rank >= PersonalExpenseRepository.RANK_DESCRIPTION && rows.size() <= pageSize; rank--) {
+            List<PersonalExpenseDTO> hits = expenseRepository.searchPage(userId, "%" + escaped + "%", escaped + "%",
+                    rank, category, startDate, endDate, expenseDate, id, PageRequest.of(0, pageSize + 1 - rows.size()));
+            if (!hits.isEmpty() && rows.size() < pageSize) {
+                // Rank of the row that ends this page, if it comes from this query
+                lastRank = rank;
             }
+            rows.addAll(hits);
+            expenseDate = FIRST_PAGE.getTimestamp();
+            id = FIRST_PAGE.getId();
         }
-        
-        log.info("Found {} expenses for search keyword: '{}'", combinedExpenses.size(), keyword);
-        return combinedExpenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PersonalExpenseDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PersonalExpenseDTO last = page.get(page.size() - 1);
+            nextCursor = new SearchCursor(lastRank, last.getExpenseDate(), last.getId()).encode();
+        }
+        log.info("Found {} expenses for search keyword: '{}'", page.size(), keyword);
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
     }
 
     @Transactional(readOnly = true)
     public List<PersonalExpenseDTO> getRecentExpenses(Long userId, int limit) {
         log.info("Getting recent {} expenses for user ID: {}", limit, userId);
         
-        // FIXED: Use the native query method instead of the problematic one
-        List<PersonalExpense> expenses = expenseRepository.findRecentExpensesByUserIdWithLimit(userId, limit);
+        List<PersonalExpenseDTO> expenses = expenseRepository.findRecentDtos(userId, PageRequest.of(0, limit));
         
         log.info("Found {} recent expenses for user ID: {}", expenses.size(), userId);
-        return expenses.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return expenses;
     }
 
-    @Transactional(readOnly = true)
+    @Transactional
     public List<CategoryWiseExpenseDTO> getCategoryWiseSummary(Long userId) {
         log.info("Getting category-wise summary for user ID: {}", userId);
-        return expenseRepository.getCategoryWiseExpenseSummary(userId);
+        return rollupService.getCategoryWiseSummary(userId);
     }
 
     @Transactional(readOnly = true)
@@ -254,39 +302,50 @@ public class PersonalExpenseService {
         return (totalSaved / totalSpent) * 100;
     }
 
-    private PersonalExpenseDTO convertToDTO(PersonalExpense expense) {
-        try {
-            // Calculate savings percentage for this expense
-            Double savingsPercentage = null;
-            if (expense.getTotalSpent() != null && expense.getTotalSpent() > 0 && expense.getAmountSaved() != null) {
-                savingsPercentage = (expense.getAmountSaved() / expense.getTotalSpent()) * 100;
-            }
-            
-            // Check if expense has savings
-            Boolean hasSavings = expense.getAmountSaved() != null && expense.getAmountSaved() > 0;
-            
-            return PersonalExpenseDTO.builder()
-                    .id(expense.getId())
-                    .title(expense.getTitle())
-                    .description(expense.getDescription())
-                    .category(expense.getCategory())
-                    .totalSpent(expense.getTotalSpent())
-                    .amountSaved(expense.getAmountSaved())
-                    .expenseDate(expense.getExpenseDate())
-                    .paymentMethod(expense.getPaymentMethod())
-                    .createdAt(expense.getCreatedAt())
-                    .updatedAt(expense.getUpdatedAt())
-                    .expenseGroupId(expense.getExpenseGroup() != null ? expense.getExpenseGroup().getId() : null)
-                    .expenseGroupTitle(expense.getExpenseGroup() != null ? expense.getExpenseGroup().getTitle() : null)
-                    .userId(expense.getUser().getId())
-                    .username(expense.getUser().getUsername())
-                    .totalBudget(expense.getTotalBudget())
-                    .savingsPercentage(savingsPercentage)
-                    .hasSavings(hasSavings)
-                    .build();
-        } catch (Exception e) {
-            log.error("Error converting expense to DTO for expense ID: {}", expense.getId(), e);
-            throw new RuntimeException("Error converting expense to DTO: " + e.getMessage());
+    private CursorPageResponse<PersonalExpenseDTO> page(String cursor, int size,
+                                                        BiFunction<PageCursor, Pageable, List<PersonalExpenseDTO>> query) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PageCursor position = PageCursor.decode(cursor);
+
+        // Read one extra row to know whether another page exists
+        List<PersonalExpenseDTO> rows = query.apply(position != null ? position : FIRST_PAGE,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PersonalExpenseDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            PersonalExpenseDTO last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(last.getExpenseDate(), last.getId()).encode();
         }
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
+    }
+
+    // LIKE wildcards in the keyword match themselves
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    // Write paths only (create/update already hold the entity); reads use the DTO queries
+    private PersonalExpenseDTO convertToDTO(PersonalExpense expense) {
+        PersonalExpenseGroup group = expense.getExpenseGroup();
+        return new PersonalExpenseDTO(
+                expense.getId(),
+                expense.getTitle(),
+                expense.getDescription(),
+                expense.getCategory(),
+                expense.getTotalSpent(),
+                expense.getAmountSaved(),
+                expense.getExpenseDate(),
+                expense.getPaymentMethod(),
+                expense.getCreatedAt(),
+                expense.getUpdatedAt(),
+                group != null ? group.getId() : null,
+                group != null ? group.getTitle() : null,
+                expense.getUser().getId(),
+                expense.getUser().getUsername());
     }
-}
\ No newline at end of file
+}
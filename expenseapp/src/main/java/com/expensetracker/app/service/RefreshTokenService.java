@@ -0,0 +1,148 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.RefreshToken;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.InvalidRefreshTokenException;
+import com.expensetracker.app.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens, so clients get new access tokens without sending
+ * their password (and without a BCrypt check) again.
+ *
+ * Tokens are 256 random bits; only their SHA-256 is stored, which is enough for a value
+ * that cannot be guessed, and cheap to check. Every refresh marks the presented token
+ * used and issues its successor. A used token presented again means it leaked (or the
+ * successor did), so every token of that login is revoked and the user has to log in.
+ *
+ * The exception is a short grace period right after a token was used: two tabs refreshing
+ * at once, or a client that lost the response, present the same token twice within seconds.
+ * Within the grace period the token is exchanged again, for another successor in the same
+ * login, instead of ending the login.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration ttl;
+    private final Duration reuseGrace;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${app.auth.refresh-token-ttl-days:14}") long ttlDays,
+                               @Value("${app.auth.refresh-token-reuse-grace-seconds:10}") long reuseGraceSeconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.reuseGrace = Duration.ofSeconds(reuseGraceSeconds);
+    }
+
+    /**
+     * A new refresh token together with the user it authenticates.
+     */
+    public record Rotation(Long userId, String username, String refreshToken) {
+    }
+
+    /**
+     * Starts a new token family for a user who just logged in.
+     * @return The refresh token to hand to the client.
+     */
+    @Transactional
+    public String issue(User user) {
+        return store(user, UUID.randomUUID().toString(), OffsetDateTime.now());
+    }
+
+    /**
+     * Exchanges a refresh token for its successor. Revocations made on reuse are kept even
+     * though the call fails.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or was used
+     *         before the grace period.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token."));
+        OffsetDateTime now = OffsetDateTime.now();
+
+        if (current.getRevokedAt() != null) {
+            throw new InvalidRefreshTokenException("Refresh token has been revoked.");
+        }
+        if (current.getUsedAt() != null && current.getUsedAt().plus(reuseGrace).isBefore(now)) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for family {}; revoked {} token(s)", current.getFamilyId(), revoked);
+            throw new InvalidRefreshTokenException("Refresh token was already used. Please log in again.");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired.");
+        }
+
+        if (current.getUsedAt() == null) {
+            // A retry within the grace period keeps the first use, so it cannot extend the period
+            current.setUsedAt(now);
+        }
+        User user = current.getUser();
+        String next = store(user, current.getFamilyId(), now);
+        return new Rotation(user.getId(), user.getUsername(), next);
+    }
+
+    /**
+     * Ends the login the token belongs to (logout). Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .ifPresent(t -> refreshTokenRepository.revokeFamily(t.getFamilyId(), OffsetDateTime.now()));
+    }
+
+    /**
+     * Purges the tokens that have expired.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token-cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpiredTokens() {
+        refreshTokenRepository.deleteExpired(OffsetDateTime.now());
+    }
+
+    private String store(User user, String familyId, OffsetDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return token;
+    }
+
+    static String hash(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required.");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.expensetracker.app.service;
+
+/**
+ * Debt simplification: turns per-member net balances into a short list of
+ * "debtor pays creditor" transfers.
+ *
+ * Greedy matcher: repeatedly take the largest creditor and the largest debtor,
+ * transfer the smaller of the two amounts and put the remainder back. Every step
+ * settles at least one member, so n members need at most n - 1 transfers, and the
+ * whole plan runs in O(n log n).
+ *
+ * Amounts are integer minor units (paise/cents). The inner loop works on primitive
+ * arrays only and does not allocate.
+ */
+public final class SettlementPlanner {
+
+    private SettlementPlanner() {
+    }
+
+    /**
+     * Computes the transfers that settle the given balances.
+     * @param balances Net balance per member in minor units; positive = is owed, negative = owes.
+     *                 Members are identified by their index in this array.
+     * @return The planned transfers. If the balances do not sum to zero, the unmatched
+     *         remainder is left unsettled.
+     */
+    public static Plan plan(long[] balances) {
+        int n = balances.length;
+        long[] remaining = new long[n];
+        IndexHeap creditors = new IndexHeap(n, remaining);
+        IndexHeap debtors = new IndexHeap(n, remaining);
+
+        for (int i = 0; i < n; i++) {
+            long balance = balances[i];
+            if (balance > 0) {
+                remaining[i] = balance;
+                creditors.push(i);
+            } else if (balance < 0) {
+                remaining[i] = -balance;
+                debtors.push(i);
+            }
+        }
+
+        Plan plan = new Plan(Math.max(0, n - 1));
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.pop();
+            int debtor = debtors.pop();
+            long amount = Math.min(remaining[creditor], remaining[debtor]);
+
+            plan.add(debtor, creditor, amount);
+
+            remaining[creditor] -= amount;
+            remaining[debtor] -= amount;
+            if (remaining[creditor] > 0) {
+                creditors.push(creditor);
+            }
+            if (remaining[debtor] > 0) {
+                debtors.push(debtor);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Result of {@link #plan(long[])}, stored column-wise: transfer i goes from
+     * member {@code from(i)} to member {@code to(i)} for {@code amount(i)} minor units.
+     */
+    public static final class Plan {
+        private final int[] from;
+        private final int[] to;
+        private final long[] amounts;
+        private int size;
+
+        private Plan(int capacity) {
+            this.from = new int[capacity];
+            this.to = new int[capacity];
+            this.amounts = new long[capacity];
+        }
+
+        private void add(int debtor, int creditor, long amount) {
+            from[size] = debtor;
+            to[size] = creditor;
+            amounts[size] = amount;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int from(int i) {
+            return from[i];
+        }
+
+        public int to(int i) {
+            return to[i];
+        }
+
+        public long amount(int i) {
+            return amounts[i];
+        }
+    }
+
+    /**
+     * Binary max-heap of member indices ordered by their current remaining amount.
+     * An index is only re-pushed after its key has been updated, so keys never change
+     * while the index is inside the heap.
+     */
+    private static final class IndexHeap {
+        private final int[] heap;
+        private final long[] keys;
+        private int size;
+
+        private IndexHeap(int capacity, long[] keys) {
+            this.heap = new int[capacity];
+            this.keys = keys;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int index) {
+            int pos = size++;
+            long key = keys[index];
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (keys[heap[parent]] >= key) {
+                    break;
+                }
+                heap[pos] = heap[parent];
+                pos = parent;
+            }
+            heap[pos] = index;
+        }
+
+        int pop() {
+            int top = heap[0];
+            int last = heap[--size];
+            long key = keys[last];
+            int pos = 0;
+            int half = size >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                int right = child + 1;
+                if (right < size && keys[heap[right]] > keys[heap[child]]) {
+                    child = right;
+                }
+                if (key >= keys[heap[child]]) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                pos = child;
+            }
+            if (size > 0) {
+                heap[pos] = last;
+            }
+            return top;
+        }
+    }
+}
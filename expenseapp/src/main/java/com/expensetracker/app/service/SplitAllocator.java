@@ -0,0 +1,93 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ValidationException;
+
+import java.util.Arrays;
+
+/**
+ * Splits an amount in integer minor units (paise/cents) proportionally to integer weights
+ * using the largest-remainder method, so the parts always add up exactly to the total.
+ *
+ * Each member first gets floor(total * weight / totalWeight). The few units left over are
+ * handed out one by one to the members with the largest remainders; ties go to the member
+ * listed first, so the same request always produces the same split.
+ *
+ * The per-member loop works on caller-provided primitive arrays and does not allocate.
+ */
+public final class SplitAllocator {
+
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    /** Largest number of members a single split can have. */
+    public static final int MAX_MEMBERS = 1 << INDEX_BITS;
+
+    /** Upper bound of the sum of weights; keeps remainder * weight within a long. */
+    public static final long MAX_TOTAL_WEIGHT = Integer.MAX_VALUE;
+
+    private SplitAllocator() {
+    }
+
+    /**
+     * Convenience variant of {@link #allocate(long, long[], int, long[], long[])} that allocates its own arrays.
+     */
+    public static long[] allocate(long total, long[] weights) {
+        long[] parts = new long[weights.length];
+        allocate(total, weights, weights.length, parts, new long[weights.length]);
+        return parts;
+    }
+
+    /**
+     * Splits 'total' over the first 'count' weights.
+     * @param total   Amount to split, in minor units (>= 0).
+     * @param weights Non-negative weights; at least one must be positive.
+     * @param count   Number of members.
+     * @param parts   Output: the share of each member, in minor units.
+     * @param scratch Work array of at least 'count' elements.
+     * @throws ValidationException if the input cannot be split.
+     */
+    public static void allocate(long total, long[] weights, int count, long[] parts, long[] scratch) {
+        if (count <= 0 || count > MAX_MEMBERS) {
+            throw new ValidationException("A split must have between 1 and " + MAX_MEMBERS + " members.");
+        }
+        if (total < 0) {
+            throw new ValidationException("The amount to split cannot be negative.");
+        }
+
+        long totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 0) {
+                throw new ValidationException("Split weights cannot be negative.");
+            }
+            totalWeight += weights[i];
+            if (totalWeight > MAX_TOTAL_WEIGHT) {
+                throw new ValidationException("The sum of split weights is too large.");
+            }
+        }
+        if (totalWeight == 0) {
+            throw new ValidationException("At least one member must have a positive split weight.");
+        }
+
+        // total * w / W == q * w + (r * w) / W with q = total / W and r = total % W;
+        // r * w < W * W <= 2^62, so nothing overflows.
+        long quotient = total / totalWeight;
+        long rest = total % totalWeight;
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            long product = rest * weights[i];
+            parts[i] = quotient * weights[i] + product / totalWeight;
+            allocated += parts[i];
+            // Sort key: remainder first, then lower index wins ties
+            scratch[i] = ((product % totalWeight) << INDEX_BITS) | (INDEX_MASK - i);
+        }
+
+        long leftover = total - allocated; // always < count
+        if (leftover > 0) {
+            Arrays.sort(scratch, 0, count);
+            for (int k = 0; k < leftover; k++) {
+                int index = (int) (INDEX_MASK - (scratch[count - 1 - k] & INDEX_MASK));
+                parts[index]++;
+            }
+        }
+    }
+}
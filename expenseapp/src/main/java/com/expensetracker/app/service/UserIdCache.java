@@ -0,0 +1,99 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves usernames to user IDs, normally without a query.
+ *
+ * Usernames never change once an account exists, so a resolved ID stays valid and entries
+ * need no expiry: signup writes the new account through with {@link #put}, and lookups that
+ * miss read the indexed username_normalized column once. Unknown usernames are not cached,
+ * so an account created on another instance is found on its first lookup. The map is bounded;
+ * when it is full an arbitrary entry makes room, which only costs that user one query later.
+ */
+@Service
+public class UserIdCache {
+
+    /**
+     * Returned by {@link #userIdOrUnknown(String)} when no user has the username.
+     */
+    public static final long UNKNOWN = -1L;
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Long> idsByUsername = new ConcurrentHashMap<>();
+
+    public UserIdCache(UserRepository userRepository,
+                       @Value("${app.user-cache.max-entries:100000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The ID of the user with this username (compared trimmed and case-insensitively), if any.
+     */
+    public Optional<Long> findUserId(String username) {
+        long id = userIdOrUnknown(username);
+        return id == UNKNOWN ? Optional.empty() : Optional.of(id);
+    }
+
+    /**
+     * Same lookup as {@link #findUserId(String)} for hot paths: returns {@link #UNKNOWN} instead of
+     * an empty Optional, and allocates nothing when the username is cached and already normalized.
+     */
+    public long userIdOrUnknown(String username) {
+        String normalized = User.normalizeUsername(username);
+        if (normalized == null || normalized.isEmpty()) {
+            return UNKNOWN;
+        }
+        Long id = idsByUsername.get(normalized);
+        if (id != null) {
+            return id;
+        }
+
+        List<Long> ids = userRepository.findIdsByNormalizedUsername(normalized);
+        if (ids.isEmpty()) {
+            return UNKNOWN;
+        }
+        store(normalized, ids.get(0));
+        return ids.get(0);
+    }
+
+    /**
+     * Records a newly created account, so its first requests need no lookup.
+     */
+    public void put(String username, Long userId) {
+        String normalized = User.normalizeUsername(username);
+        if (normalized != null && userId != null) {
+            store(normalized, userId);
+        }
+    }
+
+    int size() {
+        return idsByUsername.size();
+    }
+
+    // For tests, whose users are rolled back while the cache lives on
+    void clear() {
+        idsByUsername.clear();
+    }
+
+    private void store(String normalized, Long userId) {
+        if (idsByUsername.size() >= maxEntries && !idsByUsername.containsKey(normalized)) {
+            Iterator<String> victims = idsByUsername.keySet().iterator();
+            if (victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+        idsByUsername.putIfAbsent(normalized, userId);
+    }
+}
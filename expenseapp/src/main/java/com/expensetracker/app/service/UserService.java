@@ -1,7 +1,5 @@
 package com.expensetracker.app.service;
 
-import com.expensetracker.app.entity.User;
-import com.expensetracker.app.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,12 +9,13 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class UserService {
     
-    private final UserRepository userRepository;
+    private final UserIdCache userIdCache;
     
+    // Called at the start of most requests; answered from the cache without a query
     public Long findUserIdByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+        Long userId = userIdCache.findUserId(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
-        log.info("Found user ID: {} for username: {}", user.getId(), username);
-        return user.getId();
+        log.debug("Found user ID: {} for username: {}", userId, username);
+        return userId;
     }
 }
\ No newline at end of file
@@ -102,14 +102,21 @@ async function handleAddAnnouncement(event) {
         submitBtn.textContent = 'Posting...';
     }
 
+    // Resubmitting the same announcement reuses its Idempotency-Key, so it is posted at most once
+    const body = JSON.stringify(announcementData);
+    if (!window.pendingAnnouncementSubmit || window.pendingAnnouncementSubmit.body !== body) {
+        window.pendingAnnouncementSubmit = { body, key: crypto.randomUUID() };
+    }
+
     try {
         const response = await fetch(`${window.apiUrlBase}${window.currentGroupId}/announcements`, {
             method: 'POST',
             headers: {
                 'Content-Type': 'application/json',
-                'Authorization': `Bearer ${token}` 
+                'Authorization': `Bearer ${token}`,
+                'Idempotency-Key': window.pendingAnnouncementSubmit.key
             },
-            body: JSON.stringify(announcementData)
+            body: body
         });
 
         if (!response.ok) {
@@ -124,6 +131,7 @@ async function handleAddAnnouncement(event) {
             throw new Error(errorMessage);
         }
         
+        window.pendingAnnouncementSubmit = null;
         window.closeModal('announcement-modal');
         window.alertUserMessage("Announcement posted successfully. Refreshing list...");
         
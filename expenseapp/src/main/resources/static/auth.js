@@ -34,8 +34,20 @@ function checkAuthAndRedirect() {
     }
     
     if (isTokenExpired(token)) {
-        console.log("JWT token expired. Redirecting to login...");
         localStorage.removeItem('jwtToken');
+        if (localStorage.getItem('refreshToken')) {
+            // Trade the refresh token for a new pair instead of asking for the password again
+            console.log("JWT token expired. Refreshing session...");
+            refreshSession().then(ok => {
+                if (ok) {
+                    window.location.reload();
+                } else {
+                    window.location.href = 'login.html';
+                }
+            });
+            return false;
+        }
+        console.log("JWT token expired. Redirecting to login...");
         window.location.href = 'login.html';
         return false;
     }
@@ -43,6 +55,49 @@ function checkAuthAndRedirect() {
     return true;
 }
 
+// One refresh at a time across all tabs of the app (Web Locks API). A tab that waited while
+// another tab refreshed finds the new tokens in localStorage and does not spend the old,
+// already used refresh token again, which the server would treat as a stolen token.
+async function refreshSession() {
+    const presented = localStorage.getItem('refreshToken');
+    if (!presented) return false;
+
+    if (navigator.locks) {
+        return navigator.locks.request('refresh-session', () => exchangeRefreshToken(presented));
+    }
+    return exchangeRefreshToken(presented);
+}
+
+async function exchangeRefreshToken(presented) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (!refreshToken) return false;
+    if (refreshToken !== presented) {
+        // Another tab refreshed while this one waited
+        const token = localStorage.getItem('jwtToken');
+        return !!token && !isTokenExpired(token);
+    }
+
+    try {
+        const response = await fetch('/api/auth/refresh', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken })
+        });
+        if (!response.ok) {
+            if (localStorage.getItem('refreshToken') === refreshToken) {
+                localStorage.removeItem('refreshToken');
+            }
+            return false;
+        }
+        const data = await response.json();
+        localStorage.setItem('jwtToken', data.token);
+        localStorage.setItem('refreshToken', data.refreshToken);
+        return true;
+    } catch {
+        return false;
+    }
+}
+
 function navigateToDashboard() {
     if (checkAuthAndRedirect()) {
         window.location.href = 'homepage.html';
@@ -58,7 +113,17 @@ function getCurrentUsername() {
 }
 
 function logout() {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+        fetch('/api/auth/logout', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
     localStorage.removeItem('jwtToken');
+    localStorage.removeItem('refreshToken');
     window.location.href = 'login.html';
 }
 
@@ -1,10 +1,12 @@
 // Global variables to manage state
 window.currentExpenseId = null;
+window.currentExpenseVersion = null;
 
 // --- PAGINATION STATE ---
 const PAGE_SIZE = 20;
 let currentPage = 0;
 let hasMoreExpenses = true;
+let nextCursor = null; // Opaque keyset cursor returned by the server for the next page
 
 // Helper function to handle rounding to two decimal places for currency
 const roundToTwoDecimals = (num) => Math.round(num * 100) / 100;
@@ -137,7 +139,9 @@ window.fetchExpensesPage = async function(groupId, page, initialLoad = false) {
     }
 
     try {
-        const expenseUrl = `${window.apiUrlBase}${groupId}/expenses?page=${page}&size=${PAGE_SIZE}`;
+        if (initialLoad) nextCursor = null;
+        const cursorParam = nextCursor ? `&cursor=${encodeURIComponent(nextCursor)}` : '';
+        const expenseUrl = `${window.apiUrlBase}${groupId}/expenses?size=${PAGE_SIZE}${cursorParam}`;
         console.log('Fetching expenses from:', expenseUrl);
         const expenseResponse = await fetch(expenseUrl, {
             headers: { 'Authorization': `Bearer ${token}` }
@@ -159,10 +163,12 @@ window.fetchExpensesPage = async function(groupId, page, initialLoad = false) {
             throw new Error(`Failed to fetch expenses: ${expenseResponse.status} ${await expenseResponse.text()}`);
         }
 
-        const newExpenses = await expenseResponse.json();
+        const expensePage = await expenseResponse.json();
+        const newExpenses = expensePage.items;
         console.log('Fetched expenses:', newExpenses);
         
-        hasMoreExpenses = newExpenses.length === PAGE_SIZE;
+        hasMoreExpenses = expensePage.hasMore;
+        nextCursor = expensePage.nextCursor;
 
         window.renderExpenses(newExpenses, initialLoad);
 
@@ -186,7 +192,8 @@ window.fetchExpensesPage = async function(groupId, page, initialLoad = false) {
     }
 };
 
-// Fetch single expense from backend - ALWAYS FETCH FRESH DATA - NO CACHED FALLBACK
+// Fetch single expense from backend - NO CACHED FALLBACK
+// The browser revalidates its cached copy with If-None-Match, so an unchanged expense is a 304
 window.fetchExpenseById = async function(groupId, expenseId) {
     let token = localStorage.getItem('jwtToken');
     if (!token) {
@@ -338,6 +345,7 @@ window.resetExpenseForm = function() {
     }
 
     window.currentExpenseId = null;
+    window.currentExpenseVersion = null;
     expenseForm.reset();
     
     if (token) {
@@ -374,6 +382,7 @@ window.openViewOrEditModal = async function(expenseId, isEditMode = false) {
             throw new Error('Failed to fetch expense data');
         }
         console.log('✅ Successfully loaded fresh expense data from DB');
+        window.currentExpenseVersion = expense.version ?? null;
     } catch (error) {
         console.error('❌ Failed to fetch fresh expense data:', error);
         window.alertUserMessage("Failed to load expense details. Please try again.", 'error');
@@ -753,6 +762,24 @@ async function handleSubmitExpense(event) {
         console.log('PUT URL:', url);
     }
 
+    const headers = {
+        'Content-Type': 'application/json',
+        'Authorization': `Bearer ${token}`
+    };
+    if (method === 'PUT' && window.currentExpenseVersion !== null) {
+        // Reject the save if someone else changed the expense since it was opened
+        headers['If-Match'] = `"${window.currentExpenseVersion}"`;
+    }
+    if (method === 'POST') {
+        // Resubmitting the same expense (e.g. after a network error) reuses its Idempotency-Key,
+        // so the server creates it at most once
+        const body = JSON.stringify(expenseData);
+        if (!window.pendingExpenseSubmit || window.pendingExpenseSubmit.body !== body) {
+            window.pendingExpenseSubmit = { body, key: crypto.randomUUID() };
+        }
+        headers['Idempotency-Key'] = window.pendingExpenseSubmit.key;
+    }
+
     console.log('Final request details:', { 
         method, 
         url, 
@@ -768,10 +795,7 @@ async function handleSubmitExpense(event) {
     try {
         const response = await fetch(url, {
             method: method,
-            headers: {
-                'Content-Type': 'application/json',
-                'Authorization': `Bearer ${token}`
-            },
+            headers: headers,
             body: JSON.stringify(expenseData)
         });
 
@@ -799,6 +823,9 @@ async function handleSubmitExpense(event) {
                 window.alertUserMessage(errorMessage, 'error');
                 return;
                 
+            } else if (response.status === 412) {
+                window.alertUserMessage("This expense was changed by someone else. Please reopen it and try again.", 'error');
+                return;
             } else if (response.status === 401) {
                 errorMessage = "Authentication failed. Please log in again.";
                 handleAuthError(errorMessage);
@@ -819,6 +846,7 @@ async function handleSubmitExpense(event) {
 
         const responseData = await response.json();
         console.log('Success response:', responseData);
+        window.pendingExpenseSubmit = null;
 
         window.alertUserMessage(`Expense successfully ${window.currentExpenseId ? 'updated' : 'added'}!`, 'success');
         window.closeModal('expense-modal');
@@ -0,0 +1,85 @@
+// group-events.js
+// Live updates of the group page through GET /api/groups/{groupId}/events (Server-Sent Events).
+// EventSource cannot send the Authorization header, so the stream is read with fetch.
+
+const RECONNECT_DELAY_MS = 3000;
+
+async function subscribeToGroupEvents(groupId, justRefreshed = false) {
+    const token = localStorage.getItem('jwtToken');
+    if (!token) return;
+
+    try {
+        const response = await fetch(`${window.apiUrlBase}${groupId}/events`, {
+            headers: { 'Authorization': `Bearer ${token}`, 'Accept': 'text/event-stream' }
+        });
+        if (response.status === 401 && !justRefreshed) {
+            // Access tokens live 15 minutes: trade the refresh token for a new one (auth.js) and reconnect
+            if (await refreshSession()) {
+                subscribeToGroupEvents(groupId, true);
+                refreshGroupData(groupId);
+            } else {
+                // The session is over; login.html sends the user back here after signing in
+                window.location.href = 'login.html';
+            }
+            return;
+        }
+        if (response.status === 403 || response.status === 404) {
+            return; // Not allowed to follow this group, don't retry
+        }
+        if (!response.ok || !response.body) {
+            throw new Error(`Event stream failed: ${response.status}`);
+        }
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        while (true) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value;
+
+            // Events are separated by a blank line
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                handleEventBlock(buffer.slice(0, boundary));
+                buffer = buffer.slice(boundary + 2);
+            }
+        }
+    } catch (error) {
+        console.warn('Group event stream interrupted:', error);
+    }
+
+    // The server closes the stream on timeout or when we fall behind: reconnect and reload
+    setTimeout(() => {
+        subscribeToGroupEvents(groupId);
+        refreshGroupData(groupId);
+    }, RECONNECT_DELAY_MS);
+}
+
+function handleEventBlock(block) {
+    let name = 'message';
+    for (const line of block.split('\n')) {
+        if (line.startsWith('event:')) name = line.slice(6).trim();
+    }
+    // Comment-only blocks (":subscribed", ":heartbeat") carry no event
+    if (block.split('\n').every(line => line.startsWith(':'))) return;
+
+    if (name === 'EXPENSE_CREATED' || name === 'EXPENSE_UPDATED') {
+        window.fetchExpensesPage?.(window.currentGroupId, 0, true);
+    } else if (name === 'ANNOUNCEMENT_CREATED') {
+        window.fetchAnnouncements?.(window.currentGroupId);
+    }
+}
+
+function refreshGroupData(groupId) {
+    window.fetchExpensesPage?.(groupId, 0, true);
+    window.fetchAnnouncements?.(groupId);
+}
+
+document.addEventListener('DOMContentLoaded', () => {
+    const waitForGroup = setInterval(() => {
+        if (window.currentGroupId) {
+            clearInterval(waitForGroup);
+            subscribeToGroupEvents(window.currentGroupId);
+        }
+    }, 100);
+});
@@ -49,7 +49,18 @@ function isTokenExpired(token) {
  * Handles user logout by clearing the token and redirecting.
  */
 function logout() {
+    const refreshToken = localStorage.getItem('refreshToken');
+    if (refreshToken) {
+        // Revoke the session server-side too, so the refresh token cannot be reused
+        fetch('/api/auth/logout', {
+            method: 'POST',
+            headers: { 'Content-Type': 'application/json' },
+            body: JSON.stringify({ refreshToken }),
+            keepalive: true
+        }).catch(() => {});
+    }
     localStorage.removeItem('jwtToken');
+    localStorage.removeItem('refreshToken');
     localStorage.removeItem('currentUser');
     alert('You have been logged out.');
     window.location.href = 'login.html';
@@ -132,8 +143,13 @@ window.addEventListener('beforeunload', function(e) {
 setInterval(() => {
     const token = localStorage.getItem('jwtToken');
     if (token && isTokenExpired(token)) {
-        console.log("Token expired. Redirecting to login...");
         localStorage.removeItem('jwtToken');
+        if (localStorage.getItem('refreshToken')) {
+            // The login page renews the session with the refresh token and comes back
+            window.location.href = 'login.html';
+            return;
+        }
+        console.log("Token expired. Redirecting to login...");
         localStorage.removeItem('currentUser');
         alert('Your session has expired. Please login again.');
         window.location.href = 'login.html';
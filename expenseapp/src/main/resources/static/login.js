@@ -3,8 +3,37 @@ document.addEventListener('DOMContentLoaded', () => {
      const loginButton = document.getElementById('loginButton');
      loginButton.querySelector('.button-text').textContent = 'Login';
      loginButton.disabled = false;
+
+     resumeSession();
 });
 
+/**
+ * Pages send the user here when their short-lived access token has expired. If a refresh
+ * token is still stored, trade it for a new pair (see auth.js) and go back to that page.
+ */
+function resumeSession() {
+    if (!localStorage.getItem('refreshToken')) return;
+
+    refreshSession().then(ok => {
+        if (ok) {
+            window.location.replace(returnPage());
+        }
+    });
+}
+
+function returnPage() {
+    try {
+        const referrer = new URL(document.referrer);
+        const page = referrer.pathname.split('/').pop();
+        if (referrer.origin === window.location.origin && page && !['login.html', 'signup.html', 'index.html'].includes(page)) {
+            return referrer.pathname + referrer.search;
+        }
+    } catch {
+        // No referrer
+    }
+    return 'homepage.html';
+}
+
 /**
  * Decodes the JWT payload to extract the username.
  */
@@ -99,6 +128,9 @@ window.handleLogin = async function(event) {
             }
             
             localStorage.setItem('jwtToken', jwtToken);
+            if (data.refreshToken) {
+                localStorage.setItem('refreshToken', data.refreshToken);
+            }
             
             const loggedInUsername = decodeJwtForUsername(jwtToken);
             showMessage(`Welcome back, ${loggedInUsername}! Redirecting...`, 'success');
@@ -0,0 +1,79 @@
+package com.expensetracker.app.benchmark;
+
+import com.expensetracker.app.config.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the CPU spent to renew a session: a password login (BCrypt check, as
+ * configured in SecurityConfig) against a refresh (hash of the presented token, a new
+ * random token and its hash). Both then sign an access token. Database work is left out.
+ * Run with: mvn test-compile, then execute main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthCostBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final SecureRandom random = new SecureRandom();
+    private JwtUtil jwtUtil;
+    private String passwordHash;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 900_000, 10_000);
+        passwordHash = passwordEncoder.encode("correct horse battery staple");
+        refreshToken = newToken();
+    }
+
+    @Benchmark
+    public String passwordLogin() {
+        if (!passwordEncoder.matches("correct horse battery staple", passwordHash)) {
+            throw new IllegalStateException();
+        }
+        return jwtUtil.generateToken(1L, "alice");
+    }
+
+    @Benchmark
+    public void refresh(Blackhole blackhole) throws NoSuchAlgorithmException {
+        blackhole.consume(sha256(refreshToken));
+        blackhole.consume(sha256(newToken()));
+        blackhole.consume(jwtUtil.generateToken(1L, "alice"));
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String sha256(String value) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthCostBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package com.expensetracker.app.benchmark;
+
+import com.expensetracker.app.config.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the per-request token check: the old filter path (key and parser rebuilt,
+ * token parsed twice), one parse with a shared parser, and the verified-token cache.
+ * Run with: mvn test-compile, then execute main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789";
+
+    private String token;
+    private JwtUtil cached;
+    private JwtParser sharedParser;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtUtil(SECRET, 3_600_000, 10_000);
+        sharedParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build();
+        User user = new User("alice", "x", List.of());
+        token = cached.generateToken(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public boolean doubleParse() {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build().parseClaimsJws(token).getBody();
+        Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build().parseClaimsJws(token);
+        return claims.getSubject() != null;
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return sharedParser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedVerify() {
+        return cached.verify(token).username();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.expensetracker.app.benchmark;
+
+import com.expensetracker.app.ExpenseTrackerAppApplication;
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.PersonalExpenseDTO;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.repository.UserRepository;
+import com.expensetracker.app.service.PersonalExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the personal expense search for a user with 100,000 expenses.
+ * Needs PostgreSQL (the trigram indexes only exist there): pass -Dbench.db.url, -Dbench.db.user
+ * and -Dbench.db.password (default jdbc:postgresql://localhost:5432/expenseapp_bench, postgres/postgres).
+ * The first run seeds the data, later runs reuse it.
+ * Run with: mvn test-compile, then execute main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonalExpenseSearchBenchmark {
+
+    private static final int EXPENSES = 100_000;
+    private static final String USERNAME = "search-benchmark";
+    private static final String[] TITLES = {
+            "Coffee at the corner cafe", "Groceries", "Uber ride home", "Electricity bill", "Movie night",
+            "Lunch with team", "Gym membership", "Book store", "Pharmacy", "Train ticket" };
+
+    // A common word (10% of rows), a rare one (1 row per 1,000) and one in descriptions only
+    @Param({ "coffee", "invoice 4042", "receipt" })
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private PersonalExpenseService expenseService;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        // Command-line arguments, so that they win over the test application.properties (H2)
+        context = new SpringApplicationBuilder(ExpenseTrackerAppApplication.class)
+                // The security configuration needs a servlet context; a random port keeps it out of the way
+                .web(WebApplicationType.SERVLET)
+                .run(
+                        "--server.port=0",
+                        "--spring.datasource.url=" + System.getProperty("bench.db.url",
+                                "jdbc:postgresql://localhost:5432/expenseapp_bench"),
+                        "--spring.datasource.username=" + System.getProperty("bench.db.user", "postgres"),
+                        "--spring.datasource.password=" + System.getProperty("bench.db.password", "postgres"),
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--jwt.secret=benchmark-secret-key-that-is-long-enough-for-hs512-signing-0123456789",
+                        "--jwt.expirationMs=900000");
+        expenseService = context.getBean(PersonalExpenseService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        User user = userRepository.findByUsername(USERNAME).orElseGet(() -> userRepository.save(User.builder()
+                .username(USERNAME).email(USERNAME + "@example.com").password("x").build()));
+        userId = user.getId();
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageResponse<PersonalExpenseDTO> search() {
+        return expenseService.searchExpenses(userId, keyword, null, null, null, null, 20);
+    }
+
+    @Benchmark
+    public CursorPageResponse<PersonalExpenseDTO> searchInCategory() {
+        return expenseService.searchExpenses(userId, keyword, ExpenseCategory.FOOD, null, null, null, 20);
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM personal_expenses WHERE user_id = ?", Integer.class, userId);
+        if (existing != null && existing >= EXPENSES) {
+            return;
+        }
+        Instant start = Instant.now().minus(EXPENSES / 20, ChronoUnit.DAYS);
+        ExpenseCategory[] categories = ExpenseCategory.values();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = existing == null ? 0 : existing; i < EXPENSES; i++) {
+            String title = i % 1000 == 0 ? "Invoice " + (4000 + i / 1000) : TITLES[i % TITLES.length];
+            String description = i % 50 == 0 ? "Paid with receipt #" + i : null;
+            Timestamp date = Timestamp.from(start.plus(i * 72L, ChronoUnit.MINUTES));
+            rows.add(new Object[] { title, description, categories[i % categories.length].name(),
+                    10.0 + i % 90, (double) (i % 7), date, date, date, userId });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO personal_expenses (title, description, category, total_spent, " +
+                "amount_saved, expense_date, created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE personal_expenses");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PersonalExpenseSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.app.benchmark;
+
+import com.expensetracker.app.service.SettlementPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the settlement planner across group sizes.
+ * Run with: mvn test-compile, then execute main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementPlannerBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    private int members;
+
+    private long[] balances;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        balances = new long[members];
+        long sum = 0;
+        for (int i = 0; i < members - 1; i++) {
+            balances[i] = random.nextInt(2_000_000) - 1_000_000;
+            sum += balances[i];
+        }
+        balances[members - 1] = -sum;
+    }
+
+    @Benchmark
+    public SettlementPlanner.Plan plan() {
+        return SettlementPlanner.plan(balances);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SettlementPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.expensetracker.app.benchmark;
+
+import com.expensetracker.app.service.SplitAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the largest-remainder split for 1,000 members.
+ * Run with: mvn test-compile, then execute main() with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitAllocatorBenchmark {
+
+    private static final int MEMBERS = 1000;
+
+    @Param({ "EQUAL", "SHARES" })
+    private String strategy;
+
+    private long[] weights;
+    private long[] parts;
+    private long[] scratch;
+
+    @Setup
+    public void setUp() {
+        weights = new long[MEMBERS];
+        if ("EQUAL".equals(strategy)) {
+            Arrays.fill(weights, 1);
+        } else {
+            for (int i = 0; i < MEMBERS; i++) {
+                weights[i] = ((i % 7) + 1) * 100L;
+            }
+        }
+        parts = new long[MEMBERS];
+        scratch = new long[MEMBERS];
+    }
+
+    @Benchmark
+    public long[] allocate() {
+        SplitAllocator.allocate(123_456_789L, weights, MEMBERS, parts, scratch);
+        return parts;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SplitAllocatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
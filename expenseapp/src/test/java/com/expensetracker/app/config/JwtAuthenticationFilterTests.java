@@ -0,0 +1,74 @@
+package com.expensetracker.app.config;
+
+import com.expensetracker.app.repository.UserRepository;
+import com.expensetracker.app.service.UserIdCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTests {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+    // A real cache over a mocked repository: mocking the UserIdCache class itself would instrument
+    // it for the whole test JVM and show up in the allocation check of GroupMembershipServiceTests
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserIdCache userIdCache = new UserIdCache(userRepository, 100);
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "userIdCache", userIdCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void principalIsBuiltFromTheTokenAlone() throws Exception {
+        Authentication authentication = authenticate(jwtUtil.generateToken(7L, "alice"));
+
+        assertEquals(new AuthenticatedUser(7L, "alice"), authentication.getPrincipal());
+        assertEquals("alice", authentication.getName());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void tokenWithoutUserIdFallsBackToTheUsernameCache() throws Exception {
+        when(userRepository.findIdsByNormalizedUsername("bob")).thenReturn(List.of(9L));
+
+        Authentication authentication = authenticate(jwtUtil.generateToken(null, "bob"));
+
+        assertEquals(new AuthenticatedUser(9L, "bob"), authentication.getPrincipal());
+    }
+
+    @Test
+    void invalidTokenLeavesTheRequestUnauthenticated() throws Exception {
+        assertNull(authenticate("not-a-jwt"));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,125 @@
+package com.expensetracker.app.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef";
+
+    private static String tokenFor(JwtUtil jwtUtil, String username) {
+        User user = new User(username, "x", List.of());
+        return jwtUtil.generateToken(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @Test
+    void repeatedVerificationIsServedFromTheCache() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String token = tokenFor(jwtUtil, "alice");
+
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+
+        assertEquals("alice", first.username());
+        assertSame(first, jwtUtil.verify(token));
+        assertEquals(1, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void tokenCarriesTheUserId() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+
+        JwtUtil.VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(42L, "alice"));
+
+        assertEquals(42L, verified.userId());
+        assertEquals("alice", verified.username());
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String token = tokenFor(jwtUtil, "alice");
+        jwtUtil.verify(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertFalse(jwtUtil.validateToken(tampered));
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndNotCached() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, -1_000, 100);
+        String token = tokenFor(jwtUtil, "alice");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+        assertEquals(0, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void cacheStaysWithinItsBound() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 3);
+        for (int i = 0; i < 10; i++) {
+            jwtUtil.verify(tokenFor(jwtUtil, "user" + i));
+        }
+
+        assertEquals(3, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void oldestTokenIsEvictedFirst() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 3);
+        List<String> tokens = new ArrayList<>();
+        List<JwtUtil.VerifiedToken> verified = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tokens.add(jwtUtil.generateToken((long) i, "user" + i));
+            verified.add(jwtUtil.verify(tokens.get(i)));
+        }
+
+        assertSame(verified.get(3), jwtUtil.verify(tokens.get(3)));
+        assertSame(verified.get(1), jwtUtil.verify(tokens.get(1)));
+        assertNotSame(verified.get(0), jwtUtil.verify(tokens.get(0)));
+        assertEquals(3, jwtUtil.cachedTokenCount());
+    }
+
+    @Test
+    void accessTokensLiveAtMostFifteenMinutes() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 24 * 60 * 60 * 1000L, 100);
+
+        JwtUtil.VerifiedToken verified = jwtUtil.verify(tokenFor(jwtUtil, "alice"));
+
+        assertTrue(verified.expiresAtMillis() <= System.currentTimeMillis() + JwtUtil.MAX_EXPIRATION_MS);
+    }
+
+    @Test
+    void tokenWithoutExpiryIsRejected() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100);
+        String forever = Jwts.builder()
+                .setSubject("alice")
+                .claim("userId", 1L)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertThrows(MissingClaimException.class, () -> jwtUtil.verify(forever));
+        assertFalse(jwtUtil.validateToken(forever));
+        assertEquals(0, jwtUtil.cachedTokenCount());
+    }
+}
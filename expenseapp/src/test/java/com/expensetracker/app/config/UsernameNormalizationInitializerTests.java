@@ -0,0 +1,68 @@
+package com.expensetracker.app.config;
+
+import com.expensetracker.app.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(UsernameNormalizationInitializer.class)
+class UsernameNormalizationInitializerTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UsernameNormalizationInitializer initializer;
+
+    @Test
+    void caseVariantsOfAnExistingUsernameAreRejected() {
+        entityManager.persist(User.builder().username("Bob").email("bob@example.com").password("x").build());
+        entityManager.flush();
+
+        assertThrows(PersistenceException.class, () -> entityManager.persist(
+                User.builder().username(" bob").email("bob2@example.com").password("x").build()));
+    }
+
+    @Test
+    void oldestLegacyAccountKeepsTheUsernameAndLaterCaseVariantsStayUsable() {
+        // Rows written before username_normalized and username_key existed
+        EntityManager em = entityManager.getEntityManager();
+        for (String username : List.of("Carol", "carol", "dave", "CAROL")) {
+            em.createNativeQuery("INSERT INTO users (username, email, password) VALUES (?1, ?2, 'x')")
+                    .setParameter(1, username)
+                    .setParameter(2, username + "@example.com")
+                    .executeUpdate();
+        }
+
+        initializer.run(null);
+        entityManager.clear();
+
+        Map<String, User> users = em.createQuery("SELECT u FROM User u", User.class).getResultStream()
+                .collect(Collectors.toMap(User::getUsername, u -> u));
+        assertEquals("carol", users.get("Carol").getUsernameKey());
+        assertEquals("dave", users.get("dave").getUsernameKey());
+        assertNull(users.get("carol").getUsernameKey());
+        assertNull(users.get("CAROL").getUsernameKey());
+        assertEquals("carol", users.get("CAROL").getUsernameNormalized());
+
+        // A keyless legacy account can still be updated
+        users.get("carol").setPassword("y");
+        entityManager.flush();
+
+        assertThrows(PersistenceException.class, () -> entityManager.persist(
+                User.builder().username("cArol").email("new@example.com").password("x").build()));
+    }
+}
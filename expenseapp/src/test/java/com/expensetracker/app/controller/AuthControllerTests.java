@@ -0,0 +1,125 @@
+package com.expensetracker.app.controller;
+
+import com.expensetracker.app.config.JwtUtil;
+import com.expensetracker.app.dto.JwtResponse;
+import com.expensetracker.app.dto.LoginRequest;
+import com.expensetracker.app.dto.SignupRequest;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ServiceBusyException;
+import com.expensetracker.app.repository.UserRepository;
+import com.expensetracker.app.service.PasswordHashingService;
+import com.expensetracker.app.service.RefreshTokenService;
+import com.expensetracker.app.service.UserIdCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerTests {
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs512-signing-0123456789abcdef";
+
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ExecutorService hashingPool = Executors.newSingleThreadExecutor(r -> new Thread(r, "password-hashing-1"));
+    private final ExecutorService applicationPool = Executors.newSingleThreadExecutor(r -> new Thread(r, "application-1"));
+    private final AuthController controller = new AuthController();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(controller, "passwordHashingService", passwordHashingService);
+        ReflectionTestUtils.setField(controller, "refreshTokenService", refreshTokenService);
+        ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+        ReflectionTestUtils.setField(controller, "userIdCache", new UserIdCache(userRepository, 100));
+        ReflectionTestUtils.setField(controller, "jwtUtil", new JwtUtil(SECRET, 60_000, 100));
+        ReflectionTestUtils.setField(controller, "applicationTaskExecutor", applicationPool);
+        when(passwordHashingService.getRetryAfterSeconds()).thenReturn(2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingPool.shutdown();
+        applicationPool.shutdown();
+    }
+
+    @Test
+    void saturatedHashingPoolAnswers503WithRetryAfter() {
+        when(passwordHashingService.authenticate(any()))
+                .thenReturn(CompletableFuture.failedFuture(new ServiceBusyException("busy")));
+
+        ResponseEntity<?> response = controller.authenticateUser(login()).join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void wrongPasswordIsStill401() {
+        when(passwordHashingService.authenticate(any()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> {
+                    throw new BadCredentialsException("bad");
+                }));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.authenticateUser(login()).join().getStatusCode());
+    }
+
+    @Test
+    void tokensAreIssuedOffTheHashingPool() {
+        User alice = User.builder().id(7L).username("alice").build();
+        when(passwordHashingService.authenticate(any())).thenReturn(CompletableFuture.supplyAsync(
+                () -> new UsernamePasswordAuthenticationToken(alice, null, List.of()), hashingPool));
+        AtomicReference<String> issuedOn = new AtomicReference<>();
+        when(refreshTokenService.issue(alice)).thenAnswer(invocation -> {
+            issuedOn.set(Thread.currentThread().getName());
+            return "refresh";
+        });
+
+        ResponseEntity<?> response = controller.authenticateUser(login()).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("refresh", ((JwtResponse) response.getBody()).getRefreshToken());
+        assertEquals("application-1", issuedOn.get());
+    }
+
+    @Test
+    void signupLosingARaceForTheUsernameIs400() {
+        when(passwordHashingService.encode("secret"))
+                .thenReturn(CompletableFuture.supplyAsync(() -> "hash", hashingPool));
+        when(userRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_users_username_key"));
+        SignupRequest request = new SignupRequest();
+        request.setUsername("Alice");
+        request.setEmail("alice@example.com");
+        request.setPassword("secret");
+
+        ResponseEntity<String> response = controller.registerUser(request).join();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("already taken"));
+    }
+
+    private static LoginRequest login() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername("alice");
+        request.setPassword("secret");
+        return request;
+    }
+}
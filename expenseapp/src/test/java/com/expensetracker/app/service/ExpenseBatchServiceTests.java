@@ -0,0 +1,146 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.BatchExpenseResponse;
+import com.expensetracker.app.dto.MemberBalanceResponse;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.ExpenseSplit;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.repository.impl.ExpenseBatchRepositoryImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.expensetracker.app.service.TestFixtures.detail;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.request;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ ExpenseBatchService.class, ExpenseBatchRepositoryImpl.class, ExpenseService.class,
+        GroupBalanceService.class, GroupMembershipService.class, UserIdCache.class,
+        ValidationAutoConfiguration.class })
+class ExpenseBatchServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private ExpenseBatchService expenseBatchService;
+
+    @Autowired
+    private GroupBalanceService groupBalanceService;
+
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        group = group(entityManager, "Flat", user(entityManager, "alice"), user(entityManager, "bob"));
+        user(entityManager, "mallory");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void invalidItemsAreReportedAndTheRestAreInserted() {
+        List<AddExpenseRequest> requests = List.of(
+                request("30.00", "alice", detail("alice", "15.00", "30.00"), detail("bob", "15.00", "0.00")),
+                request("10.00", "mallory", detail("alice", "5.00", "0.00"), detail("bob", "5.00", "0.00")),
+                request("10.00", "alice", detail("alice", "2.00", "10.00"), detail("bob", "2.00", "0.00")),
+                request("0.00", "alice", detail("alice", "0.00", "0.00")),
+                request("8.00", "bob", detail("alice", "8.00", "0.00"), detail("bob", "0.00", "8.00")));
+
+        BatchExpenseResponse response = expenseBatchService.createExpenses(group.getId(), requests, "alice");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, response.getCreated());
+        assertEquals(3, response.getFailed());
+        assertEquals(List.of(0, 1, 2, 3, 4),
+                response.getResults().stream().map(BatchExpenseResponse.ItemResult::getIndex).toList());
+        for (int failed : List.of(1, 2, 3)) {
+            assertNull(response.getResults().get(failed).getExpenseId());
+            assertNotNull(response.getResults().get(failed).getError());
+        }
+        assertTrue(response.getResults().get(1).getError().contains("mallory"));
+
+        // The reported ids are the inserted rows, with their splits attached
+        Expense first = entityManager.find(Expense.class, response.getResults().get(0).getExpenseId());
+        Expense last = entityManager.find(Expense.class, response.getResults().get(4).getExpenseId());
+        assertEquals(0, new BigDecimal("30.00").compareTo(first.getAmount()));
+        assertEquals(Map.of("alice", "15.00", "bob", "-15.00"), netBySplit(first));
+        assertEquals(Map.of("alice", "-8.00", "bob", "8.00"), netBySplit(last));
+        assertEquals(2L, entityManager.getEntityManager()
+                .createQuery("SELECT COUNT(e) FROM Expense e WHERE e.group.id = :groupId", Long.class)
+                .setParameter("groupId", group.getId()).getSingleResult());
+    }
+
+    @Test
+    void ledgerGetsTheDeltasOfTheInsertedItemsOnly() {
+        expenseBatchService.createExpenses(group.getId(), List.of(
+                request("30.00", "alice", detail("alice", "15.00", "30.00"), detail("bob", "15.00", "0.00")),
+                request("99.00", "alice", detail("alice", "1.00", "99.00")),
+                request("8.00", "bob", detail("alice", "8.00", "0.00"), detail("bob", "0.00", "8.00"))), "alice");
+        entityManager.flush();
+
+        assertEquals(Map.of("alice", "7.00", "bob", "-7.00"), balances());
+    }
+
+    @Test
+    void largeImportsSpanSeveralJdbcBatches() {
+        List<AddExpenseRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            requests.add(request("2.00", "alice", detail("alice", "1.00", "2.00"), detail("bob", "1.00", "0.00")));
+        }
+
+        BatchExpenseResponse response = expenseBatchService.createExpenses(group.getId(), requests, "alice");
+        entityManager.flush();
+
+        assertEquals(250, response.getCreated());
+        assertEquals(250, response.getResults().stream().map(BatchExpenseResponse.ItemResult::getExpenseId)
+                .distinct().count());
+        assertEquals(Map.of("alice", "250.00", "bob", "-250.00"), balances());
+    }
+
+    @Test
+    void nonMembersCannotImport() {
+        assertThrows(AccessDeniedException.class, () -> expenseBatchService.createExpenses(group.getId(),
+                List.of(request("10.00", "alice", detail("alice", "10.00", "10.00"))), "mallory"));
+    }
+
+    private Map<String, String> balances() {
+        return groupBalanceService.getBalances(group.getId(), "alice").stream()
+                .collect(Collectors.toMap(MemberBalanceResponse::getMemberUsername,
+                        b -> b.getNetBalance().setScale(2).toPlainString()));
+    }
+
+    private Map<String, String> netBySplit(Expense expense) {
+        return expense.getSplits().stream()
+                .collect(Collectors.toMap(ExpenseSplit::getMemberUsername,
+                        s -> s.getNetBalance().setScale(2).toPlainString()));
+    }
+}
@@ -0,0 +1,193 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.repository.ExpenseRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.expensetracker.app.service.TestFixtures.expense;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.share;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({ ExpenseExportService.class, GroupMembershipService.class, UserIdCache.class,
+        JacksonAutoConfiguration.class })
+class ExpenseExportServiceTests {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2024, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExpenseExportService exportService;
+
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        group = group(entityManager, "Flat", user(entityManager, "alice"), user(entityManager, "bob"));
+        user(entityManager, "mallory");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void csvHasOneLinePerSplitAndQuotesSpecialCharacters() throws IOException {
+        persistExpense("Pizza, \"large\"\nand drinks", START, "30.00");
+        persistExpense("Rent", START.plusDays(1), "100.00");
+
+        String csv = export(ExpenseExportService.ExportFormat.CSV);
+
+        assertEquals("expense_id,created_at,description,amount,paid_by,member_username,owed_amount,paid_amount,net_balance",
+                csv.substring(0, csv.indexOf('\n')));
+        assertEquals(7, csv.split("\n").length, "header, two Rent splits, two Pizza splits spanning two lines each");
+        assertTrue(csv.contains(",\"Pizza, \"\"large\"\"\nand drinks\",30.00,alice,alice,15.00,30.00,15.00\n"));
+        assertTrue(csv.contains(",Rent,100.00,alice,bob,50.00,0.00,-50.00\n"));
+        // Newest expense first
+        assertTrue(csv.indexOf("Rent") < csv.indexOf("Pizza"));
+    }
+
+    @Test
+    void csvTextThatLooksLikeAFormulaIsEscaped() throws IOException {
+        persistExpense("=HYPERLINK(\"http://evil.example\",\"Refund\")", START, "30.00");
+        persistExpense("+1 taxi", START.plusDays(1), "10.00");
+        persistExpense("@SUM(A1)", START.plusDays(2), "10.00");
+        persistExpense("\tTab", START.plusDays(3), "10.00");
+        persistExpense("-5 discount", START.plusDays(4), "10.00");
+
+        String csv = export(ExpenseExportService.ExportFormat.CSV);
+
+        assertTrue(csv.contains(",\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"Refund\"\")\",30.00,"));
+        assertTrue(csv.contains(",'+1 taxi,10.00,"));
+        assertTrue(csv.contains(",'@SUM(A1),10.00,"));
+        assertTrue(csv.contains(",'\tTab,10.00,"));
+        // Negative amounts are numbers and stay as they are
+        assertTrue(csv.contains(",'-5 discount,10.00,alice,bob,5.00,0.00,-5.00\n"));
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerExpenseWithNestedSplits() throws IOException {
+        persistExpense("Rent", START, "100.00");
+        entityManager.persist(expense(group, "No splits", "5.00", "bob", START.plusDays(1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        String[] lines = export(ExpenseExportService.ExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        JsonNode noSplits = objectMapper.readTree(lines[0]);
+        assertEquals("No splits", noSplits.get("description").asText());
+        assertEquals(0, noSplits.get("splits").size());
+
+        JsonNode rent = objectMapper.readTree(lines[1]);
+        assertEquals("Rent", rent.get("description").asText());
+        assertEquals("alice", rent.get("paidBy").asText());
+        assertEquals(0, new BigDecimal("100.00").compareTo(rent.get("amount").decimalValue()));
+        assertEquals(2, rent.get("splits").size());
+        assertEquals("bob", rent.get("splits").get(1).get("memberUsername").asText());
+        assertEquals(0, new BigDecimal("-50.00").compareTo(rent.get("splits").get(1).get("netBalance").decimalValue()));
+    }
+
+    @Test
+    void nonMembersCannotExport() {
+        assertThrows(AccessDeniedException.class, () -> exportService.checkExportAllowed(group.getId(), "mallory"));
+        exportService.checkExportAllowed(group.getId(), "Bob");
+    }
+
+    @Test
+    void rowsAreWrittenWhileTheResultIsStillBeingRead() throws IOException {
+        for (int i = 0; i < 1500; i++) {
+            persistExpense("Expense number " + i + " with a reasonably long description", START.plusMinutes(i), "10.00");
+        }
+
+        // Counts the rows handed out by the cursor, and how many had been read when the first bytes left the service
+        AtomicInteger rowsRead = new AtomicInteger();
+        AtomicInteger rowsReadAtFirstWrite = new AtomicInteger(-1);
+        ExpenseRepository countingRepository = mock(ExpenseRepository.class);
+        when(countingRepository.streamLedgerRowsByGroupId(anyLong())).thenAnswer(invocation ->
+                expenseRepository.streamLedgerRowsByGroupId(invocation.getArgument(0))
+                        .peek(row -> rowsRead.incrementAndGet()));
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                rowsReadAtFirstWrite.compareAndSet(-1, rowsRead.get());
+            }
+        };
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        new ExpenseExportService(countingRepository, groupMembershipService, objectMapper)
+                .export(group.getId(), ExpenseExportService.ExportFormat.CSV, sink);
+
+        assertEquals(3000, rowsRead.get());
+        assertTrue(rowsReadAtFirstWrite.get() > 0 && rowsReadAtFirstWrite.get() < rowsRead.get(),
+                "first write after " + rowsReadAtFirstWrite.get() + " rows");
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private String export(ExpenseExportService.ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(group.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // Paid by alice, split evenly between alice and bob
+    private void persistExpense(String description, OffsetDateTime createdAt, String amount) {
+        String half = new BigDecimal(amount).divide(BigDecimal.valueOf(2)).toPlainString();
+        entityManager.persist(expense(group, description, amount, "alice", createdAt,
+                share("alice", half, amount),
+                share("bob", half, "0.00")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,187 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CategoryWiseExpenseDTO;
+import com.expensetracker.app.dto.ExpenseSummaryDTO;
+import com.expensetracker.app.dto.PersonalExpenseDTO;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.entity.PersonalExpense;
+import com.expensetracker.app.entity.PersonalExpenseGroup;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.entity.UserCategoryMonthRollup;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ ExpenseRollupService.class, PersonalExpenseService.class, PersonalExpenseGroupService.class,
+        ExpenseStatisticsService.class })
+class ExpenseRollupServiceTests {
+
+    private static final OffsetDateTime JANUARY = OffsetDateTime.of(2024, 1, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private PersonalExpenseService expenseService;
+
+    @Autowired
+    private PersonalExpenseGroupService groupService;
+
+    @Autowired
+    private ExpenseStatisticsService statisticsService;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        // Written before the rollups existed; picked up by the first build
+        entityManager.persist(expense(ExpenseCategory.FOOD, JANUARY, 40.0, 10.0).user(alice).build());
+        entityManager.persist(expense(ExpenseCategory.TRAVEL, JANUARY.plusMonths(1), 100.0, 0.0).user(alice).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void writesKeepRollupsEqualToARebuild() {
+        Long id = alice.getId();
+        PersonalExpenseDTO lunch = expenseService.createExpense(
+                expense(ExpenseCategory.FOOD, JANUARY.plusDays(3), 12.5, 2.5).build(), id);
+        PersonalExpenseDTO taxi = expenseService.createExpense(
+                expense(ExpenseCategory.TRANSPORTATION, JANUARY, 20.0, 0.0).build(), id);
+        PersonalExpenseDTO hotel = expenseService.createExpense(
+                expense(ExpenseCategory.TRAVEL, JANUARY.plusMonths(1), 300.0, 50.0).build(), id);
+
+        // Same bucket, new amounts
+        expenseService.updateExpense(lunch.getId(), expense(ExpenseCategory.FOOD, JANUARY.plusDays(4), 15.0, 5.0).build(), id);
+        // Another category and another month; its old bucket becomes empty
+        expenseService.updateExpense(taxi.getId(), expense(ExpenseCategory.TRAVEL, JANUARY.plusMonths(2), 25.0, 0.0).build(), id);
+        expenseService.deleteExpense(hotel.getId(), id);
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<String> incremental = rollups();
+        assertEquals(Set.of(
+                "FOOD 2024-01-01 55.0 15.0 2",
+                "TRAVEL 2024-02-01 100.0 0.0 1",
+                "TRAVEL 2024-03-01 25.0 0.0 1"), incremental);
+
+        rollupService.rebuildAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(incremental, rollups());
+    }
+
+    @Test
+    void deletingAGroupUncountsItsExpenses() {
+        Long id = alice.getId();
+        PersonalExpenseGroup trip = entityManager.persist(PersonalExpenseGroup.builder()
+                .title("Trip").fromDate(JANUARY).toDate(JANUARY.plusMonths(1)).user(alice).build());
+        entityManager.flush();
+        for (PersonalExpense inTrip : List.of(
+                expense(ExpenseCategory.FOOD, JANUARY, 12.5, 2.5).build(),
+                expense(ExpenseCategory.FOOD, JANUARY.plusDays(1), 7.5, 0.0).build(),
+                expense(ExpenseCategory.TRANSPORTATION, JANUARY, 20.0, 0.0).build())) {
+            inTrip.setExpenseGroup(trip);
+            expenseService.createExpense(inTrip, id);
+        }
+        expenseService.createExpense(expense(ExpenseCategory.FOOD, JANUARY, 5.0, 0.0).build(), id);
+        entityManager.flush();
+        entityManager.clear();
+
+        groupService.deleteGroup(trip.getId(), id);
+        entityManager.flush();
+        entityManager.clear();
+
+        Set<String> incremental = rollups();
+        assertEquals(Set.of(
+                "FOOD 2024-01-01 45.0 10.0 2",
+                "TRAVEL 2024-02-01 100.0 0.0 1"), incremental);
+
+        rollupService.rebuildAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(incremental, rollups());
+    }
+
+    @Test
+    void summaryIsReadFromTheRollupsInAFixedNumberOfQueries() {
+        expenseService.createExpense(expense(ExpenseCategory.FOOD, JANUARY.plusMonths(5), 20.0, 30.0).build(), alice.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExpenseSummaryDTO summary = statisticsService.getExpenseSummary(alice.getId());
+
+        assertEquals(3, statistics.getPrepareStatementCount(), "rollups flag, category totals, group count");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(160.0, summary.getTotalSpent());
+        assertEquals(40.0, summary.getTotalSaved());
+        assertEquals(3, summary.getTotalExpenses());
+
+        List<CategoryWiseExpenseDTO> categories = expenseService.getCategoryWiseSummary(alice.getId());
+        assertEquals(List.of(ExpenseCategory.TRAVEL, ExpenseCategory.FOOD),
+                categories.stream().map(CategoryWiseExpenseDTO::getCategory).toList());
+        assertEquals(62.5, categories.get(0).getPercentageOfTotal());
+        assertEquals(2, categories.get(1).getExpenseCount());
+    }
+
+    @Test
+    void monthsAreCalendarMonthsInUtc() {
+        // 1 Feb 01:00 in India is still January in UTC
+        OffsetDateTime lateJanuary = OffsetDateTime.of(2024, 2, 1, 1, 0, 0, 0, ZoneOffset.ofHoursMinutes(5, 30));
+        expenseService.createExpense(expense(ExpenseCategory.FOOD, lateJanuary, 5.0, 0.0).build(), alice.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(rollups().contains("FOOD 2024-01-01 45.0 10.0 2"));
+    }
+
+    private Set<String> rollups() {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT r FROM UserCategoryMonthRollup r WHERE r.user.id = :userId",
+                        UserCategoryMonthRollup.class)
+                .setParameter("userId", alice.getId())
+                .getResultStream()
+                .map(r -> r.getCategory() + " " + r.getMonthStart() + " " + r.getTotalSpent() + " "
+                        + r.getAmountSaved() + " " + r.getExpenseCount())
+                .collect(Collectors.toSet());
+    }
+
+    private static PersonalExpense.PersonalExpenseBuilder expense(ExpenseCategory category, OffsetDateTime date,
+                                                                  double spent, double saved) {
+        return PersonalExpense.builder()
+                .title(category.getDisplayName())
+                .category(category)
+                .totalSpent(spent)
+                .amountSaved(saved)
+                .expenseDate(date);
+    }
+}
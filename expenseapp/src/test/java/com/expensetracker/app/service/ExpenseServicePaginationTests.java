@@ -0,0 +1,135 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.PageCursor;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.expensetracker.app.service.TestFixtures.expense;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.share;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ ExpenseService.class, GroupBalanceService.class, GroupMembershipService.class,
+        UserIdCache.class })
+class ExpenseServicePaginationTests {
+
+    private static final int EXPENSES = 17;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    private Long groupId;
+    private List<Long> newestFirst;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        Group group = group(entityManager, "Trip", user(entityManager, "alice"), user(entityManager, "bob"));
+        user(entityManager, "carol");
+        groupId = group.getId();
+
+        // Only three distinct timestamps, so most pages end in the middle of a tie broken by id
+        OffsetDateTime start = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(1);
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < EXPENSES; i++) {
+            Expense expense = expense(group, "Expense " + i, "30.00", "alice", start.plusMinutes(i % 3),
+                    share("alice", "15.00", "30.00"),
+                    share("bob", "15.00", "0.00"));
+            expenses.add(entityManager.persist(expense));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        newestFirst = expenses.stream()
+                .sorted(Comparator.comparing(Expense::getCreatedAt).thenComparing(Expense::getId).reversed())
+                .map(Expense::getId)
+                .toList();
+    }
+
+    @Test
+    void pagesAreDisjointAndTogetherListEveryExpenseInOrder() {
+        for (int size = 1; size <= 6; size++) {
+            List<Long> seen = new ArrayList<>();
+            String cursor = null;
+            CursorPageResponse<Expense> page;
+            do {
+                page = expenseService.getExpensesPage(groupId, cursor, size, "alice");
+                assertFalse(page.getItems().isEmpty());
+                assertTrue(page.getItems().size() <= size);
+                page.getItems().forEach(e -> seen.add(e.getId()));
+                cursor = page.getNextCursor();
+            } while (page.isHasMore());
+
+            assertNull(page.getNextCursor());
+            assertEquals(seen.size(), new HashSet<>(seen).size(), "pages of " + size + " overlap");
+            assertEquals(newestFirst, seen, "pages of " + size);
+        }
+    }
+
+    @Test
+    void cursorRoundTripsToTheLastExpenseOfThePage() {
+        String cursor = null;
+        CursorPageResponse<Expense> page;
+        do {
+            String etag = expenseService.getExpensesPageEtag(groupId, cursor, 4, "alice");
+            page = expenseService.getExpensesPage(groupId, cursor, 4, "alice");
+            assertEquals(expenseService.getExpensesPageEtag(page), etag);
+
+            if (page.isHasMore()) {
+                Expense last = page.getItems().get(page.getItems().size() - 1);
+                PageCursor decoded = PageCursor.decode(page.getNextCursor());
+                assertEquals(last.getId(), decoded.getId());
+                assertEquals(last.getCreatedAt().toInstant(), decoded.getTimestamp().toInstant());
+                assertEquals(page.getNextCursor(), decoded.encode());
+            }
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertThrows(ValidationException.class, () -> expenseService.getExpensesPage(groupId, "not-a-cursor", 4, "alice"));
+    }
+
+    @Test
+    void nonMembersCannotReadPagesOrTheirEtags() {
+        String cursor = expenseService.getExpensesPage(groupId, null, 4, "alice").getNextCursor();
+
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPage(groupId, null, 4, "carol"));
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPage(groupId, cursor, 4, "carol"));
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPageEtag(groupId, null, 4, "carol"));
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPageEtag(groupId, cursor, 4, "carol"));
+        assertThrows(ResourceNotFoundException.class,
+                () -> expenseService.getExpensesPage(groupId + 1000, null, 4, "alice"));
+    }
+}
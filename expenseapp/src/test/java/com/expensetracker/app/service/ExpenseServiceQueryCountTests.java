@@ -0,0 +1,102 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+
+import static com.expensetracker.app.service.TestFixtures.expense;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.share;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ ExpenseService.class, GroupBalanceService.class, GroupMembershipService.class,
+        UserIdCache.class })
+class ExpenseServiceQueryCountTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    private Statistics statistics;
+    private Long groupId;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        Group group = group(entityManager, "Trip", user(entityManager, "alice"), user(entityManager, "bob"));
+        groupId = group.getId();
+
+        OffsetDateTime start = OffsetDateTime.now().minusDays(1);
+        for (int i = 0; i < 120; i++) {
+            Expense expense = expense(group, "Expense " + i, "30.00", "alice", start.plusMinutes(i),
+                    share("alice", "15.00", "30.00"),
+                    share("bob", "15.00", "0.00"));
+            entityManager.persist(expense);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // The membership check is cached after the first call; the counts below are for the page itself
+        assertTrue(groupMembershipService.isMember(groupId, "alice"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageOfFiftyExpensesLoadsSplitsWithConstantStatementCount() {
+        long smallPage = statementsToReadPage(null, 5);
+        long largePage = statementsToReadPage(null, 50);
+
+        assertEquals(2, largePage, "one query for the page, one for all of its splits");
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void followingPagesDoNotGrowStatementCount() {
+        entityManager.clear();
+        CursorPageResponse<Expense> first = expenseService.getExpensesPage(groupId, null, 50, "alice");
+        assertTrue(first.isHasMore());
+        entityManager.clear();
+
+        long nextPage = statementsToReadPage(first.getNextCursor(), 50);
+
+        assertEquals(2, nextPage);
+    }
+
+    private long statementsToReadPage(String cursor, int size) {
+        entityManager.clear();
+        statistics.clear();
+
+        CursorPageResponse<Expense> page = expenseService.getExpensesPage(groupId, cursor, size, "alice");
+        int splitCount = page.getItems().stream().mapToInt(e -> e.getSplits().size()).sum();
+
+        assertEquals(size, page.getItems().size());
+        assertEquals(size * 2, splitCount);
+        return statistics.getPrepareStatementCount();
+    }
+}
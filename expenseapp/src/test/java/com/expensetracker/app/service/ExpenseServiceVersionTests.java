@@ -0,0 +1,109 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.exception.PreconditionFailedException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+
+import static com.expensetracker.app.service.TestFixtures.detail;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ ExpenseService.class, GroupBalanceService.class, GroupMembershipService.class,
+        UserIdCache.class })
+class ExpenseServiceVersionTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    private Group group;
+    private Long expenseId;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        group = group(entityManager, "Trip", user(entityManager, "alice"), user(entityManager, "bob"));
+        user(entityManager, "carol");
+
+        expenseId = expenseService.createExpense(group.getId(), request("40.00", "20.00", "20.00"), "alice").getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void updateWithStaleIfMatchIsRejected() {
+        Long version = expenseService.getExpenseVersion(group.getId(), expenseId, "alice");
+
+        expenseService.updateExpense(group.getId(), expenseId, request("40.00", "10.00", "30.00"), "alice", version);
+        entityManager.flush();
+        entityManager.clear();
+
+        Long newVersion = expenseService.getExpenseVersion(group.getId(), expenseId, "alice");
+        assertTrue(newVersion > version);
+
+        assertThrows(PreconditionFailedException.class, () -> expenseService.updateExpense(
+                group.getId(), expenseId, request("40.00", "30.00", "10.00"), "alice", version));
+    }
+
+    @Test
+    void pageEtagChangesWhenAnExpenseOnThePageChanges() {
+        String before = expenseService.getExpensesPageEtag(group.getId(), null, 20, "alice");
+        assertEquals(before, expenseService.getExpensesPageEtag(expenseService.getExpensesPage(group.getId(), null, 20, "alice")));
+        entityManager.clear();
+
+        expenseService.updateExpense(group.getId(), expenseId, request("50.00", "25.00", "25.00"), "alice", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertNotEquals(before, expenseService.getExpensesPageEtag(group.getId(), null, 20, "alice"));
+    }
+
+    @Test
+    void nonMembersCannotListOrRevalidateThePage() {
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPage(group.getId(), null, 20, "carol"));
+        assertThrows(AccessDeniedException.class, () -> expenseService.getExpensesPageEtag(group.getId(), null, 20, "carol"));
+    }
+
+    @Test
+    void versionLookupDoesNotLoadSplits() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        expenseService.getExpenseVersion(group.getId(), expenseId, "alice");
+
+        assertEquals(1, statistics.getPrepareStatementCount(), "version lookup, user id and members are cached");
+    }
+
+    private AddExpenseRequest request(String amount, String aliceOwes, String bobOwes) {
+        return TestFixtures.request(amount, "alice", detail("alice", aliceOwes, amount), detail("bob", bobOwes, "0"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.GroupActivityResponse;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.GroupAnnouncement;
+import com.expensetracker.app.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ GroupActivityService.class, GroupMembershipService.class, UserIdCache.class,
+        ExpenseActivitySource.class, AnnouncementActivitySource.class })
+class GroupActivityServiceTests {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private GroupActivityService groupActivityService;
+
+    private Group group;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        group = entityManager.persist(Group.builder()
+                .name("Trip").createdBy(alice).members(Set.of(alice)).build());
+
+        // Minutes 0..6 get an expense, minutes 0, 2, 2, 5 and 9 an announcement,
+        // so the merge has to break ties both across and within sources
+        for (int minute = 0; minute < 7; minute++) {
+            expense(minute);
+        }
+        for (int minute : new int[] { 0, 2, 2, 5, 9 }) {
+            announcement(minute);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesWalkTheMergedFeedWithoutGapsOrDuplicates() {
+        List<GroupActivityResponse> all = groupActivityService.getActivity(group.getId(), null, 100, "alice").getItems();
+        assertEquals(12, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(GroupActivityService.FEED_ORDER.compare(all.get(i - 1), all.get(i)) < 0);
+        }
+        assertEquals(AnnouncementActivitySource.TYPE, all.get(0).getType());
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        CursorPageResponse<GroupActivityResponse> page;
+        do {
+            page = groupActivityService.getActivity(group.getId(), cursor, 5, "alice");
+            page.getItems().forEach(e -> paged.add(e.getType() + e.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertEquals(all.stream().map(e -> e.getType() + e.getId()).toList(), paged);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPageResponse<GroupActivityResponse> page = groupActivityService.getActivity(group.getId(), null, 12, "alice");
+
+        assertEquals(12, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertEquals(null, page.getNextCursor());
+    }
+
+    private void expense(int minute) {
+        entityManager.persist(Expense.builder()
+                .group(group)
+                .amount(new BigDecimal("10.00"))
+                .description("Expense at " + minute)
+                .paidByUsername("alice")
+                .createdAt(START.plusMinutes(minute))
+                .build());
+    }
+
+    private void announcement(int minute) {
+        GroupAnnouncement announcement = entityManager.persist(GroupAnnouncement.builder()
+                .group(group).createdBy(alice).title("Note").description("At " + minute).build());
+        entityManager.flush();
+        // created_at is set by @CreationTimestamp, move it to the test's timeline
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE group_announcements SET created_at = ?1 WHERE id = ?2")
+                .setParameter(1, START.plusMinutes(minute))
+                .setParameter(2, announcement.getId())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,155 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.MemberBalanceResponse;
+import com.expensetracker.app.dto.SplitStrategy;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.Group;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.expensetracker.app.service.TestFixtures.detail;
+import static com.expensetracker.app.service.TestFixtures.expense;
+import static com.expensetracker.app.service.TestFixtures.group;
+import static com.expensetracker.app.service.TestFixtures.request;
+import static com.expensetracker.app.service.TestFixtures.share;
+import static com.expensetracker.app.service.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import({ ExpenseService.class, GroupBalanceService.class, GroupMembershipService.class,
+        UserIdCache.class })
+class GroupBalanceServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupBalanceService groupBalanceService;
+
+    private Group group;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        group = group(entityManager, "Flat", user(entityManager, "alice"), user(entityManager, "bob"),
+                user(entityManager, "carol"));
+        entityManager.flush();
+    }
+
+    @Test
+    void createAndUpdateMaintainBalancesIncrementally() {
+        Expense expense = expenseService.createExpense(group.getId(), request("90.00", "alice",
+                detail("alice", "30.00", "90.00"),
+                detail("bob", "30.00", "0.00"),
+                detail("carol", "30.00", "0.00")), "alice");
+        entityManager.flush();
+
+        assertEquals(Map.of("alice", "60.00", "bob", "-30.00", "carol", "-30.00"), balances());
+
+        // Carol leaves the split, bob takes her share
+        expenseService.updateExpense(group.getId(), expense.getId(), request("90.00", "alice",
+                detail("alice", "30.00", "90.00"),
+                detail("bob", "60.00", "0.00")), "alice", null);
+        entityManager.flush();
+
+        assertEquals(Map.of("alice", "60.00", "bob", "-60.00", "carol", "0.00"), balances());
+    }
+
+    @Test
+    void ledgerIsBuiltFromExistingSplitsOnFirstUse() {
+        entityManager.persist(expense(group, "Before the ledger", "20.00", "bob", OffsetDateTime.now(),
+                share("bob", "10.00", "20.00"),
+                share("carol", "10.00", "0.00")));
+        entityManager.flush();
+
+        expenseService.createExpense(group.getId(), request("10.00", "alice",
+                detail("alice", "5.00", "10.00"),
+                detail("carol", "5.00", "0.00")), "alice");
+        entityManager.flush();
+
+        assertEquals(Map.of("alice", "5.00", "bob", "10.00", "carol", "-15.00"), balances());
+    }
+
+    @Test
+    void equalSplitStrategyIsComputedOnTheServer() {
+        AddExpenseRequest request = request("100.00", "alice",
+                detail("alice", null, "100.00"),
+                detail("bob", null, "0.00"),
+                detail("carol", null, "0.00"));
+        request.setSplitStrategy(SplitStrategy.EQUAL);
+
+        expenseService.createExpense(group.getId(), request, "alice");
+        entityManager.flush();
+
+        // alice owes 33.34 (first member gets the leftover cent) and paid 100.00
+        assertEquals(Map.of("alice", "66.66", "bob", "-33.33", "carol", "-33.33"), balances());
+    }
+
+    @Test
+    void updateWritesOnlyTheSplitsThatChanged() {
+        Expense expense = expenseService.createExpense(group.getId(), request("90.00", "alice",
+                detail("alice", "30.00", "90.00"),
+                detail("bob", "30.00", "0.00"),
+                detail("carol", "30.00", "0.00")), "alice");
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Same amounts, new description: only the expense row is written
+        AddExpenseRequest renamed = request("90.00", "alice",
+                detail("alice", "30.00", "90.00"),
+                detail("bob", "30.00", "0.00"),
+                detail("carol", "30", "0"));
+        renamed.setDescription("Weekly groceries");
+        statistics.clear();
+        expenseService.updateExpense(group.getId(), expense.getId(), renamed, "alice", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+
+        // carol leaves the split and bob takes her share: one delete, one split update
+        statistics.clear();
+        expenseService.updateExpense(group.getId(), expense.getId(), request("90.00", "alice",
+                detail("alice", "30.00", "90.00"),
+                detail("bob", "60.00", "0.00")), "alice", null);
+        entityManager.flush();
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+        assertEquals(Map.of("alice", "60.00", "bob", "-60.00", "carol", "0.00"), balances());
+    }
+
+    private Map<String, String> balances() {
+        return groupBalanceService.getBalances(group.getId(), "alice").stream()
+                .collect(Collectors.toMap(MemberBalanceResponse::getMemberUsername,
+                        b -> b.getNetBalance().setScale(2).toPlainString()));
+    }
+}
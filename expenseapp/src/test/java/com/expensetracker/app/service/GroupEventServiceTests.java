@@ -0,0 +1,167 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.GroupActivityResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class GroupEventServiceTests {
+
+    private static final long GROUP_ID = 7L;
+    private static final long OTHER_GROUP_ID = 8L;
+
+    private GroupMembershipService membership;
+
+    @BeforeEach
+    void setUp() {
+        membership = mock(GroupMembershipService.class);
+        doThrow(new AccessDeniedException("not a member"))
+                .when(membership).requireMember(eq(GROUP_ID), eq("mallory"), anyString());
+    }
+
+    @Test
+    void subscriberThatDrainsItsBufferStaysConnected() {
+        GroupEventService service = new GroupEventService(membership, 2, 60_000, 1_000, Runnable::run);
+        service.subscribe(GROUP_ID, "alice");
+
+        for (int i = 0; i < 10; i++) {
+            service.onGroupEvent(event(i));
+        }
+
+        assertEquals(1, service.subscriberCount(GROUP_ID));
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWhenItsBufferIsFull() {
+        // The sender never gets to run, as if the client stopped reading
+        List<Runnable> stalled = new ArrayList<>();
+        GroupEventService service = new GroupEventService(membership, 2, 60_000, 1_000, stalled::add);
+        service.subscribe(GROUP_ID, "alice");
+
+        service.onGroupEvent(event(1));
+        service.onGroupEvent(event(2));
+        assertEquals(1, service.subscriberCount(GROUP_ID));
+
+        service.onGroupEvent(event(3));
+        assertEquals(0, service.subscriberCount(GROUP_ID));
+        assertEquals(1, stalled.size(), "one pending drain task per subscriber");
+    }
+
+    @Test
+    void stalledSendIsDroppedAndDoesNotHoldUpOtherGroups() throws Exception {
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch stalledCompleted = new CountDownLatch(1);
+        // The "subscribed" comment, then the event
+        CountDownLatch otherDelivered = new CountDownLatch(2);
+        // A client that stopped reading without closing its connection: the write never returns
+        SseEmitter stalledClient = new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                if (stalledCompleted.getCount() > 0 && subscribed.getAndSet(true)) {
+                    try {
+                        unblock.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException("write aborted", e);
+                    }
+                }
+            }
+
+            @Override
+            public void complete() {
+                stalledCompleted.countDown();
+            }
+
+            private final AtomicBoolean subscribed = new AtomicBoolean();
+        };
+        SseEmitter otherClient = new SseEmitter(60_000L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                otherDelivered.countDown();
+            }
+        };
+        Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(stalledClient, otherClient));
+        ThreadPoolExecutor sender = new ThreadPoolExecutor(1, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>());
+        GroupEventService service = new GroupEventService(membership, 2, 60_000, 50, sender) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                return emitters.poll();
+            }
+        };
+        try {
+            service.subscribe(GROUP_ID, "alice");
+            service.subscribe(OTHER_GROUP_ID, "bob");
+
+            service.onGroupEvent(event(1));
+            // The only sender thread is now stuck in alice's write, so bob's event waits in the queue
+            service.onGroupEvent(new GroupEvent(OTHER_GROUP_ID, GroupEvent.EXPENSE_CREATED, null));
+            Thread.sleep(100);
+            assertEquals(1, otherDelivered.getCount());
+
+            service.expireStalledSends();
+
+            assertEquals(0, service.subscriberCount(GROUP_ID));
+            assertTrue(otherDelivered.await(5, TimeUnit.SECONDS), "a replacement thread delivers bob's event");
+            assertTrue(stalledCompleted.await(5, TimeUnit.SECONDS), "completed once its write is aborted");
+            assertEquals(1, service.subscriberCount(OTHER_GROUP_ID));
+        } finally {
+            unblock.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void removedMembersStreamsAreClosedOnceTheRemovalCommits() {
+        GroupEventService service = new GroupEventService(membership, 2, 60_000, 1_000, Runnable::run);
+        service.subscribe(GROUP_ID, " Alice");
+        service.subscribe(GROUP_ID, "bob");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.unsubscribe(GROUP_ID, List.of("alice"));
+            assertEquals(2, service.subscriberCount(GROUP_ID));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, service.subscriberCount(GROUP_ID));
+    }
+
+    @Test
+    void nonMembersCannotSubscribe() {
+        GroupEventService service = new GroupEventService(membership, 2, 60_000, 1_000, Runnable::run);
+
+        assertThrows(AccessDeniedException.class, () -> service.subscribe(GROUP_ID, "mallory"));
+        assertEquals(0, service.subscriberCount(GROUP_ID));
+    }
+
+    private GroupEvent event(long expenseId) {
+        return new GroupEvent(GROUP_ID, GroupEvent.EXPENSE_CREATED, new GroupActivityResponse(
+                ExpenseActivitySource.TYPE, expenseId, OffsetDateTime.now(), "alice", "Taxi", null, BigDecimal.TEN));
+    }
+}
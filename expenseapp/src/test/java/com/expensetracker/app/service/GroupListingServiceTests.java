@@ -0,0 +1,119 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.GroupResponse;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ GroupListingService.class, UserIdCache.class })
+class GroupListingServiceTests {
+
+    private static final int GROUPS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GroupListingService groupListingService;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        User alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            others.add(entityManager.persist(User.builder()
+                    .username("user" + i).email("user" + i + "@example.com").password("x").build()));
+        }
+
+        // Group i has alice plus i other members; "Other" does not include alice
+        for (int i = 0; i < GROUPS; i++) {
+            Set<User> members = new HashSet<>(others.subList(0, i % others.size()));
+            members.add(alice);
+            entityManager.persist(Group.builder()
+                    .name("Group " + (char) ('A' + (i * 5) % GROUPS)).createdBy(alice).members(members).build());
+        }
+        entityManager.persist(Group.builder()
+                .name("Other").createdBy(others.get(0)).members(Set.of(others.get(0))).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesByNameCoverEveryGroupOnceInOrder() {
+        List<String> names = walk(GroupListingService.GroupSort.NAME, 5);
+
+        assertEquals(GROUPS, names.size());
+        assertEquals(names.stream().sorted().toList(), names);
+    }
+
+    @Test
+    void pagesByCreationDateAreNewestFirst() {
+        List<GroupResponse> all = groupListingService.getUserGroups("alice", null, 100,
+                GroupListingService.GroupSort.CREATED_AT, 1).getItems();
+        for (int i = 1; i < all.size(); i++) {
+            GroupResponse newer = all.get(i - 1);
+            GroupResponse older = all.get(i);
+            assertTrue(!newer.getCreatedAt().isBefore(older.getCreatedAt()) && newer.getId() > older.getId());
+        }
+
+        assertEquals(all.stream().map(GroupResponse::getName).toList(),
+                walk(GroupListingService.GroupSort.CREATED_AT, 5));
+    }
+
+    @Test
+    void pageHasMemberCountsAndPreviewInAFixedNumberOfQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CursorPageResponse<GroupResponse> page = groupListingService.getUserGroups("alice", null, 100,
+                GroupListingService.GroupSort.NAME, 3);
+
+        assertEquals(4, statistics.getPrepareStatementCount(), "user id, group rows, member counts, member previews");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertFalse(page.isHasMore());
+        for (GroupResponse group : page.getItems()) {
+            assertEquals(Math.min(3, group.getTotalMembers()), group.getMembers().size());
+            assertEquals(group.getMembers().stream().sorted().toList(), group.getMembers());
+        }
+        assertTrue(page.getItems().stream().anyMatch(g -> g.getTotalMembers() == 8));
+    }
+
+    private List<String> walk(GroupListingService.GroupSort sort, int size) {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        CursorPageResponse<GroupResponse> page;
+        do {
+            page = groupListingService.getUserGroups("alice", cursor, size, sort, 2);
+            page.getItems().forEach(g -> names.add(g.getName()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        return names;
+    }
+}
@@ -0,0 +1,146 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ResourceNotFoundException;
+import com.expensetracker.app.repository.GroupRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ GroupMembershipService.class, UserIdCache.class })
+class GroupMembershipServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GroupMembershipService membershipService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    private Group group;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        bob = entityManager.persist(User.builder()
+                .username("bob").email("bob@example.com").password("x").build());
+        group = entityManager.persist(Group.builder()
+                .name("Trip").createdBy(alice).members(Set.of(alice)).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void repeatedChecksAreAnsweredFromTheCache() {
+        assertTrue(membershipService.isMember(group.getId(), alice.getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(membershipService.isMember(group.getId(), alice.getId()));
+        assertFalse(membershipService.isMember(group.getId(), bob.getId()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cachedChecksByUsernameDoNotAllocate() {
+        assertTrue(membershipService.isMember(group.getId(), "alice"));
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Long groupId = group.getId();
+
+        long before = threads.getThreadAllocatedBytes(thread);
+        boolean all = true;
+        for (int i = 0; i < 10_000; i++) {
+            all &= membershipService.isMember(groupId, "alice");
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(all);
+        // An Optional, a lambda and a boxed Long per call would be hundreds of kilobytes
+        assertTrue(allocated < 16 * 1024, allocated + " bytes allocated");
+    }
+
+    @Test
+    void addedMemberIsSeenAfterInvalidation() {
+        assertFalse(membershipService.isMember(group.getId(), bob.getId()));
+
+        entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO group_members (group_id, user_id) VALUES (?1, ?2)")
+                .setParameter(1, group.getId())
+                .setParameter(2, bob.getId())
+                .executeUpdate();
+        assertFalse(membershipService.isMember(group.getId(), bob.getId()), "still cached");
+
+        membershipService.invalidate(group.getId());
+        assertTrue(membershipService.isMember(group.getId(), bob.getId()));
+    }
+
+    @Test
+    void groupsAboveTheLimitAreRememberedAndCheckedWithOneQuery() {
+        User carol = entityManager.persist(User.builder()
+                .username("carol").email("carol@example.com").password("x").build());
+        Group large = entityManager.persist(Group.builder()
+                .name("Club").createdBy(alice).members(Set.of(alice, bob)).build());
+        entityManager.flush();
+        // At most one cached member: the two-member group is too large
+        GroupMembershipService limited = new GroupMembershipService(groupRepository, userIdCache, 16, 60, 1);
+
+        assertTrue(limited.isMember(large.getId(), alice.getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(limited.isMember(large.getId(), bob.getId()));
+        assertFalse(limited.isMember(large.getId(), carol.getId()));
+        assertEquals(2, statistics.getPrepareStatementCount(), "one EXISTS per check, no member list");
+    }
+
+    @Test
+    void usernamesAreMatchedIgnoringCase() {
+        assertTrue(membershipService.isMember(group.getId(), " Alice "));
+        assertFalse(membershipService.isMember(group.getId(), "bob"));
+        assertFalse(membershipService.isMember(group.getId(), "nobody"));
+    }
+
+    @Test
+    void missingGroupIsNotFoundAndNonMemberIsDenied() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> membershipService.requireMember(group.getId() + 1000, "alice", "denied"));
+        assertThrows(AccessDeniedException.class,
+                () -> membershipService.requireMember(group.getId(), "bob", "denied"));
+    }
+}
@@ -0,0 +1,218 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.GroupMembersDiffResponse;
+import com.expensetracker.app.dto.GroupResponse;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.ExpenseSplit;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ValidationException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ GroupService.class, GroupMembershipService.class, GroupListingService.class, GroupBalanceService.class,
+        GroupEventService.class, UserIdCache.class })
+class GroupServiceTests {
+
+    private static final int MEMBERS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    @Autowired
+    private GroupMembershipService groupMembershipService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GroupService groupService;
+
+    private Group group;
+    private List<String> usernames;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        groupMembershipService.clear();
+        List<User> members = new ArrayList<>();
+        usernames = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            // "member_00".."member_39"; the underscore must not act as a LIKE wildcard
+            String username = String.format("member_%02d", i);
+            usernames.add(username);
+            members.add(entityManager.persist(User.builder()
+                    .username(username).email(username + "@example.com").password("x").build()));
+        }
+        entityManager.persist(User.builder().username("memberx01").email("x@example.com").password("x").build());
+        group = entityManager.persist(Group.builder()
+                .name("Community").createdBy(members.get(0)).members(new HashSet<>(members)).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void memberPagesWalkEveryMemberInOrder() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        CursorPageResponse<String> page;
+        do {
+            page = groupService.getMembers(group.getId(), cursor, 7, null, "member_00");
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        assertEquals(usernames, seen);
+    }
+
+    @Test
+    void prefixFiltersMembersCaseInsensitively() {
+        CursorPageResponse<String> page = groupService.getMembers(group.getId(), null, 50, "MEMBER_0", "member_00");
+
+        assertEquals(usernames.subList(0, 10), page.getItems());
+    }
+
+    @Test
+    void detailsCarryCountAndPreviewWithoutLoadingMembers() {
+        groupService.getGroupById(group.getId(), "member_00");
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        GroupResponse response = groupService.getGroupById(group.getId(), "member_00");
+
+        assertEquals(MEMBERS, response.getTotalMembers());
+        assertEquals(usernames.subList(0, GroupService.MEMBER_PREVIEW), response.getMembers());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void previewIsTheFirstPageOfTheMemberList() {
+        // A legacy mixed-case account: sorts between member_00 and member_01 by normalized name,
+        // but before every other member by raw username
+        User legacy = entityManager.persist(User.builder()
+                .username("MEMBER_005").email("m5@example.com").password("x").build());
+        entityManager.find(Group.class, group.getId()).getMembers().add(legacy);
+        entityManager.flush();
+        entityManager.clear();
+
+        GroupResponse response = groupService.getGroupById(group.getId(), "member_00");
+
+        assertEquals(groupService.getMembers(group.getId(), null, GroupService.MEMBER_PREVIEW, null, "member_00")
+                .getItems(), response.getMembers());
+        assertEquals("MEMBER_005", response.getMembers().get(1));
+    }
+
+    @Test
+    void addedMemberIsCountedAndCanAct() {
+        GroupResponse response = groupService.addMemberToGroup(group.getId(), "memberx01", "member_00");
+
+        assertEquals(MEMBERS + 1, response.getTotalMembers());
+        assertEquals(MEMBERS + 1, groupService.getMembers(group.getId(), null, 100, null, "memberx01").getItems().size());
+    }
+
+    @Test
+    void batchAddWritesOnlyTheMissingMembersAndReportsTheDiff() {
+        User newcomer = entityManager.persist(User.builder()
+                .username("newcomer").email("n@example.com").password("x").build());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        GroupMembersDiffResponse diff = groupService.addMembers(group.getId(),
+                List.of(" MemberX01", "newcomer", "member_03", "ghost", "newcomer"), "member_00");
+
+        assertEquals(List.of("memberx01", "newcomer"), diff.getAdded());
+        assertEquals(List.of("member_03"), diff.getUnchanged());
+        assertEquals(List.of("ghost"), diff.getNotFound());
+        assertEquals(MEMBERS + 2, diff.getTotalMembers());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertTrue(groupService.getMembers(group.getId(), null, 100, null, "newcomer").getItems()
+                .contains(newcomer.getUsername()));
+    }
+
+    @Test
+    void batchRemoveDeletesMembersAndRevokesAccess() {
+        GroupMembersDiffResponse diff = groupService.removeMembers(group.getId(),
+                List.of("member_05", "member_06", "memberx01"), "member_00");
+
+        assertEquals(List.of("member_05", "member_06"), diff.getRemoved());
+        assertEquals(List.of("memberx01"), diff.getUnchanged());
+        assertEquals(MEMBERS - 2, diff.getTotalMembers());
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.getMembers(group.getId(), null, 10, null, "member_05"));
+    }
+
+    @Test
+    void membersOtherThanTheCreatorCanOnlyRemoveThemselves() {
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.removeMembers(group.getId(), List.of("member_05"), "member_07"));
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.removeMembers(group.getId(), List.of("member_07", "member_05"), "member_07"));
+
+        GroupMembersDiffResponse diff = groupService.removeMembers(group.getId(), List.of(" Member_07"), "member_07");
+
+        assertEquals(List.of("member_07"), diff.getRemoved());
+        assertEquals(MEMBERS - 1, diff.getTotalMembers());
+    }
+
+    @Test
+    void creatorCannotBeRemoved() {
+        assertThrows(ValidationException.class,
+                () -> groupService.removeMembers(group.getId(), List.of("member_01", "member_00"), "member_00"));
+    }
+
+    @Test
+    void membersWithUnsettledBalancesCannotBeRemoved() {
+        // member_05 paid 30 for member_05 and member_06; member_07 is not part of it
+        Expense expense = Expense.builder().group(group).amount(new BigDecimal("30.00")).description("Dinner")
+                .paidByUsername("member_05").createdAt(OffsetDateTime.now()).build();
+        expense.setSplits(List.of(
+                ExpenseSplit.builder().expense(expense).memberUsername("member_05").owedAmount(new BigDecimal("15.00"))
+                        .paidAmount(new BigDecimal("30.00")).netBalance(new BigDecimal("15.00")).build(),
+                ExpenseSplit.builder().expense(expense).memberUsername("member_06").owedAmount(new BigDecimal("15.00"))
+                        .paidAmount(BigDecimal.ZERO).netBalance(new BigDecimal("-15.00")).build()));
+        entityManager.persist(expense);
+        entityManager.flush();
+        entityManager.clear();
+
+        ValidationException refused = assertThrows(ValidationException.class, () -> groupService.removeMembers(
+                group.getId(), List.of("member_05", "member_06", "member_07"), "member_00"));
+        assertTrue(refused.getMessage().contains("member_05, member_06"));
+        assertThrows(ValidationException.class,
+                () -> groupService.removeMembers(group.getId(), List.of("member_06"), "member_06"));
+
+        assertEquals(List.of("member_07"),
+                groupService.removeMembers(group.getId(), List.of("member_07"), "member_00").getRemoved());
+    }
+
+    @Test
+    void nonMembersCannotListMembers() {
+        assertThrows(AccessDeniedException.class,
+                () -> groupService.getMembers(group.getId(), null, 10, null, "memberx01"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.IdempotencyRecord;
+import com.expensetracker.app.exception.ValidationException;
+import com.expensetracker.app.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Not transactional: every execution commits, like a real request does
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ IdempotencyService.class, JacksonAutoConfiguration.class })
+class IdempotencyServiceTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Test
+    void retryReplaysTheStoredResponseWithoutWritingAgain() {
+        String key = UUID.randomUUID().toString();
+
+        IdempotencyService.StoredResponse first = create(key, "Taxi");
+        IdempotencyService.StoredResponse retry = create(key, "Taxi");
+
+        assertEquals(1, writes.get());
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void retryIsReplayedFromTheTableWhenNoLongerCached() {
+        String key = UUID.randomUUID().toString();
+        IdempotencyService.StoredResponse first = create(key, "Taxi");
+
+        idempotencyService.clearRecent();
+        IdempotencyService.StoredResponse retry = create(key, "Taxi");
+
+        assertEquals(1, writes.get());
+        assertEquals(first.getBody(), retry.getBody());
+    }
+
+    @Test
+    void concurrentRetriesRunTheWriteOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IdempotencyService.StoredResponse>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> pool.submit(() -> {
+                        start.await();
+                        return idempotencyService.execute("test", "alice", key, Map.of("d", "Taxi"),
+                                HttpStatus.CREATED, () -> {
+                                    sleep(200);
+                                    return Map.of("id", writes.incrementAndGet());
+                                });
+                    }))
+                    .toList();
+            start.countDown();
+
+            String body = results.get(0).get().getBody();
+            for (Future<IdempotencyService.StoredResponse> result : results) {
+                assertEquals(body, result.get().getBody());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() {
+        String key = UUID.randomUUID().toString();
+        create(key, "Taxi");
+
+        assertThrows(ValidationException.class, () -> create(key, "Hotel"));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void failedWriteIsNotRecorded() {
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(ValidationException.class, () -> idempotencyService.execute("test", "alice", key,
+                Map.of("d", "Taxi"), HttpStatus.CREATED, () -> {
+                    throw new ValidationException("Invalid amount.");
+                }));
+        create(key, "Taxi");
+
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void expiredKeyCanBeReusedBeforeTheCleanupRuns() {
+        String key = UUID.randomUUID().toString();
+        OffsetDateTime past = OffsetDateTime.now().minusDays(2);
+        recordRepository.save(IdempotencyRecord.builder()
+                .recordKey("test:alice:" + key).requestHash("old").responseStatus(201).responseBody("{}")
+                .createdAt(past).expiresAt(past.plusDays(1)).build());
+
+        IdempotencyService.StoredResponse response = create(key, "Hotel");
+
+        assertFalse(response.isReplayed());
+        assertEquals(1, writes.get());
+        assertEquals(response.getBody(), recordRepository.findById("test:alice:" + key).orElseThrow().getResponseBody());
+    }
+
+    private IdempotencyService.StoredResponse create(String key, String description) {
+        return idempotencyService.execute("test", "alice", key, Map.of("d", description), HttpStatus.CREATED,
+                () -> Map.of("id", writes.incrementAndGet(), "d", description));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class PasswordHashingServiceTests {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    // Stands in for BCrypt: holds its thread until the test releases it
+    private final PasswordEncoder slowEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    private final PasswordHashingService service =
+            new PasswordHashingService(slowEncoder, mock(AuthenticationManager.class), 2, 4, 3);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void burstBeyondThePoolIsRejectedWithoutBlockingCallers() throws Exception {
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            calls.add(service.encode("password" + i));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 2 running + 4 queued are admitted, the rest fail fast while hashing is still stuck
+        assertTrue(elapsedMs < 1000, "callers were blocked for " + elapsedMs + " ms");
+        List<CompletableFuture<String>> rejected = calls.stream().filter(CompletableFuture::isDone).toList();
+        assertEquals(44, rejected.size());
+        for (CompletableFuture<String> call : rejected) {
+            ExecutionException e = assertThrows(ExecutionException.class, call::get);
+            assertInstanceOf(ServiceBusyException.class, e.getCause());
+        }
+
+        release.countDown();
+        for (int i = 0; i < 6; i++) {
+            assertEquals("hash:password" + i, calls.get(i).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void poolAcceptsWorkAgainOnceItDrains() throws Exception {
+        release.countDown();
+
+        assertEquals("hash:secret", service.encode("secret").get(5, TimeUnit.SECONDS));
+        assertEquals(3, service.getRetryAfterSeconds());
+    }
+}
@@ -0,0 +1,199 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.CursorPageResponse;
+import com.expensetracker.app.dto.PersonalExpenseDTO;
+import com.expensetracker.app.dto.SearchCursor;
+import com.expensetracker.app.entity.ExpenseCategory;
+import com.expensetracker.app.entity.PersonalExpense;
+import com.expensetracker.app.entity.PersonalExpenseGroup;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.ValidationException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ PersonalExpenseService.class, ExpenseRollupService.class })
+class PersonalExpenseServiceTests {
+
+    private static final OffsetDateTime START = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PersonalExpenseService expenseService;
+
+    private User alice;
+    private PersonalExpenseGroup trip;
+    private final List<PersonalExpense> aliceExpenses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        User bob = entityManager.persist(User.builder()
+                .username("bob").email("bob@example.com").password("x").build());
+        trip = entityManager.persist(PersonalExpenseGroup.builder()
+                .title("Trip").fromDate(START).toDate(START.plusDays(30)).user(alice).build());
+
+        // Two expenses per day, so pages have to break ties on the id
+        for (int i = 0; i < 25; i++) {
+            aliceExpenses.add(entityManager.persist(PersonalExpense.builder()
+                    .title("Expense " + i)
+                    .category(i % 3 == 0 ? ExpenseCategory.FOOD : ExpenseCategory.TRAVEL)
+                    .totalSpent(10.0).amountSaved(1.0)
+                    .expenseDate(START.plusDays(i / 2))
+                    .expenseGroup(i % 2 == 0 ? trip : null)
+                    .user(alice).build()));
+        }
+        entityManager.persist(PersonalExpense.builder()
+                .title("Bob's").category(ExpenseCategory.FOOD).totalSpent(5.0).amountSaved(0.0)
+                .expenseDate(START).user(bob).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesCoverEveryExpenseOnceNewestFirst() {
+        List<Long> ids = walk(cursor -> expenseService.getExpensesPage(alice.getId(), cursor, 7));
+
+        assertEquals(expectedIds(e -> true), ids);
+    }
+
+    @Test
+    void filteredListingsArePaginatedToo() {
+        assertEquals(expectedIds(e -> e.getCategory() == ExpenseCategory.FOOD),
+                walk(cursor -> expenseService.getExpensesByCategory(alice.getId(), ExpenseCategory.FOOD, cursor, 3)));
+        assertEquals(expectedIds(e -> !e.getExpenseDate().isBefore(START.plusDays(3))
+                        && !e.getExpenseDate().isAfter(START.plusDays(8))),
+                walk(cursor -> expenseService.getExpensesByDateRange(alice.getId(),
+                        START.plusDays(3), START.plusDays(8), cursor, 4)));
+        assertEquals(expectedIds(e -> e.getExpenseGroup() != null),
+                walk(cursor -> expenseService.getExpensesByGroupId(trip.getId(), alice.getId(), cursor, 5)));
+    }
+
+    @Test
+    void pageIsOneStatementAndSizeIsClamped() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CursorPageResponse<PersonalExpenseDTO> page = expenseService.getExpensesPage(alice.getId(), null, 10);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("alice", page.getItems().get(0).getUsername());
+        assertTrue(page.isHasMore());
+
+        CursorPageResponse<PersonalExpenseDTO> all = expenseService.getExpensesPage(alice.getId(), null, 10_000);
+        assertEquals(25, all.getItems().size());
+        assertFalse(all.isHasMore());
+    }
+
+    @Test
+    void readsSelectDtosWithoutLoadingEntities() {
+        PersonalExpense inTrip = aliceExpenses.get(0);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PersonalExpenseDTO byId = expenseService.getExpenseById(inTrip.getId(), alice.getId());
+        List<PersonalExpenseDTO> recent = expenseService.getRecentExpenses(alice.getId(), 5);
+        List<PersonalExpenseDTO> found = expenseService.searchExpenses(alice.getId(), "ENSE 1",
+                null, null, null, null, 100).getItems();
+
+        // The search reads each of its three ranks once; PostgreSQL adds one statement for the plan mode
+        boolean postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        assertEquals(postgres ? 6 : 5, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals("Trip", byId.getExpenseGroupTitle());
+        assertEquals("alice", byId.getUsername());
+        assertEquals(11.0, byId.getTotalBudget());
+        assertEquals(10.0, byId.getSavingsPercentage());
+        assertTrue(byId.getHasSavings());
+        assertEquals(expectedIds(e -> true).subList(0, 5), recent.stream().map(PersonalExpenseDTO::getId).toList());
+        // "Expense 1" and "Expense 10".."Expense 19"
+        assertEquals(11, found.size());
+        assertEquals(0, expenseService.searchExpenses(alice.getId(), "%", null, null, null, null, 100).getItems().size());
+    }
+
+    @Test
+    void searchRanksTitleMatchesFirstAndSupportsFiltersAndPages() {
+        PersonalExpense described = entityManager.persist(PersonalExpense.builder()
+                .title("Groceries").description("coffee beans").category(ExpenseCategory.FOOD)
+                .totalSpent(3.0).amountSaved(0.0).expenseDate(START.plusDays(40)).user(alice).build());
+        PersonalExpense contains = entityManager.persist(PersonalExpense.builder()
+                .title("Morning coffee").category(ExpenseCategory.FOOD)
+                .totalSpent(3.0).amountSaved(0.0).expenseDate(START.plusDays(1)).user(alice).build());
+        PersonalExpense prefix = entityManager.persist(PersonalExpense.builder()
+                .title("Coffee with Bob").category(ExpenseCategory.ENTERTAINMENT)
+                .totalSpent(3.0).amountSaved(0.0).expenseDate(START).user(alice).build());
+        PersonalExpense newerPrefix = entityManager.persist(PersonalExpense.builder()
+                .title("coffee to go").category(ExpenseCategory.FOOD)
+                .totalSpent(3.0).amountSaved(0.0).expenseDate(START.plusDays(3)).user(alice).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> expected = List.of(newerPrefix.getId(), prefix.getId(), contains.getId(), described.getId());
+        for (int size = 1; size <= 5; size++) {
+            int pageSize = size;
+            assertEquals(expected, walk(cursor -> expenseService.searchExpenses(alice.getId(), "Coffee",
+                    null, null, null, cursor, pageSize)));
+        }
+
+        assertEquals(List.of(newerPrefix.getId(), contains.getId(), described.getId()),
+                walk(cursor -> expenseService.searchExpenses(alice.getId(), "coffee", ExpenseCategory.FOOD,
+                        null, null, cursor, 10)));
+        assertEquals(List.of(contains.getId()), walk(cursor -> expenseService.searchExpenses(
+                alice.getId(), "coffee", null, START.plusHours(1), START.plusDays(2), cursor, 10)));
+        assertThrows(ValidationException.class, () -> expenseService.searchExpenses(
+                alice.getId(), "  ", null, null, null, null, 10));
+        assertThrows(ValidationException.class, () -> expenseService.searchExpenses(
+                alice.getId(), "coffee", null, null, null, new SearchCursor(4, START, 1L).encode(), 10));
+    }
+
+    private List<Long> walk(Function<String, CursorPageResponse<PersonalExpenseDTO>> fetch) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        CursorPageResponse<PersonalExpenseDTO> page;
+        do {
+            page = fetch.apply(cursor);
+            page.getItems().forEach(e -> ids.add(e.getId()));
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+        return ids;
+    }
+
+    private List<Long> expectedIds(Predicate<PersonalExpense> filter) {
+        return aliceExpenses.stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(PersonalExpense::getExpenseDate)
+                        .thenComparing(PersonalExpense::getId).reversed())
+                .map(PersonalExpense::getId)
+                .toList();
+    }
+}
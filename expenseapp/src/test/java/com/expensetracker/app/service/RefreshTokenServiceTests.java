@@ -0,0 +1,106 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.RefreshToken;
+import com.expensetracker.app.entity.User;
+import com.expensetracker.app.exception.InvalidRefreshTokenException;
+import com.expensetracker.app.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(RefreshTokenService.class)
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        alice = entityManager.persist(User.builder()
+                .username("alice").email("alice@example.com").password("x").build());
+        entityManager.flush();
+    }
+
+    @Test
+    void rotationIssuesANewTokenAndStoresOnlyHashes() {
+        String first = refreshTokenService.issue(alice);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals(alice.getId(), rotation.userId());
+        assertEquals("alice", rotation.username());
+        assertNotEquals(first, rotation.refreshToken());
+        List<RefreshToken> stored = refreshTokenRepository.findAll();
+        assertEquals(2, stored.size());
+        assertTrue(stored.stream().noneMatch(t -> t.getTokenHash().equals(first)
+                || t.getTokenHash().equals(rotation.refreshToken())));
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String first = refreshTokenService.issue(alice);
+        String second = refreshTokenService.rotate(first).refreshToken();
+        String otherLogin = refreshTokenService.issue(alice);
+        // Used a minute ago, well past the grace period
+        refreshTokenRepository.findAll().stream().filter(t -> t.getUsedAt() != null)
+                .forEach(t -> t.setUsedAt(OffsetDateTime.now().minusMinutes(1)));
+        entityManager.flush();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+        refreshTokenService.rotate(otherLogin);
+    }
+
+    @Test
+    void tokenPresentedTwiceWithinTheGracePeriodKeepsTheLogin() {
+        String first = refreshTokenService.issue(alice);
+
+        // Two tabs refreshing with the same token at once
+        String fromTabA = refreshTokenService.rotate(first).refreshToken();
+        String fromTabB = refreshTokenService.rotate(first).refreshToken();
+
+        assertNotEquals(fromTabA, fromTabB);
+        refreshTokenService.rotate(fromTabA);
+        refreshTokenService.rotate(fromTabB);
+    }
+
+    @Test
+    void expiredAndUnknownTokensAreRejected() {
+        String token = refreshTokenService.issue(alice);
+        refreshTokenRepository.findAll().forEach(t -> t.setExpiresAt(OffsetDateTime.now().minusMinutes(1)));
+        entityManager.flush();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+
+    @Test
+    void logoutRevokesTheLogin() {
+        String token = refreshTokenService.issue(alice);
+
+        refreshTokenService.revoke(token);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+    }
+}
@@ -0,0 +1,59 @@
+package com.expensetracker.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SettlementPlannerTests {
+
+    @Test
+    void settlesSimpleGroup() {
+        // alice is owed 60, bob owes 30, carol owes 30
+        SettlementPlanner.Plan plan = SettlementPlanner.plan(new long[] { 6000, -3000, -3000 });
+
+        assertEquals(2, plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            assertEquals(0, plan.to(i));
+            assertEquals(3000, plan.amount(i));
+        }
+    }
+
+    @Test
+    void settledMembersProduceNoTransfers() {
+        assertEquals(0, SettlementPlanner.plan(new long[] { 0, 0 }).size());
+        assertEquals(0, SettlementPlanner.plan(new long[0]).size());
+    }
+
+    @Test
+    void largeRandomGroupIsFullySettledWithAtMostNMinusOneTransfers() {
+        int members = 5_000;
+        long[] balances = randomBalances(members, new Random(42));
+
+        SettlementPlanner.Plan plan = SettlementPlanner.plan(balances);
+
+        long[] after = balances.clone();
+        for (int i = 0; i < plan.size(); i++) {
+            assertTrue(plan.amount(i) > 0);
+            after[plan.from(i)] += plan.amount(i);
+            after[plan.to(i)] -= plan.amount(i);
+        }
+        for (long balance : after) {
+            assertEquals(0, balance);
+        }
+        assertTrue(plan.size() <= members - 1);
+    }
+
+    static long[] randomBalances(int members, Random random) {
+        long[] balances = new long[members];
+        long sum = 0;
+        for (int i = 0; i < members - 1; i++) {
+            balances[i] = random.nextInt(2_000_000) - 1_000_000;
+            sum += balances[i];
+        }
+        balances[members - 1] = -sum;
+        return balances;
+    }
+}
@@ -0,0 +1,50 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SplitAllocatorTests {
+
+    @Test
+    void equalSplitGivesLeftoverToFirstMembers() {
+        // 100.00 over 3 members: 33.34, 33.33, 33.33
+        assertArrayEquals(new long[] { 3334, 3333, 3333 }, SplitAllocator.allocate(10000, new long[] { 1, 1, 1 }));
+    }
+
+    @Test
+    void leftoverGoesToLargestRemainders() {
+        // 10.00 split 1:2:3 -> 1.666.., 3.333.., 5.00 -> 1.67, 3.33, 5.00
+        assertArrayEquals(new long[] { 167, 333, 500 }, SplitAllocator.allocate(1000, new long[] { 1, 2, 3 }));
+    }
+
+    @Test
+    void zeroWeightMembersOweNothing() {
+        assertArrayEquals(new long[] { 0, 1000, 0 }, SplitAllocator.allocate(1000, new long[] { 0, 5, 0 }));
+    }
+
+    @Test
+    void thousandMembersAlwaysReconcileExactly() {
+        long[] weights = new long[1000];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (i % 7) + 1;
+        }
+        long total = 123_456_789L;
+
+        long[] parts = SplitAllocator.allocate(total, weights);
+
+        assertEquals(total, Arrays.stream(parts).sum());
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(ValidationException.class, () -> SplitAllocator.allocate(100, new long[] { 0, 0 }));
+        assertThrows(ValidationException.class, () -> SplitAllocator.allocate(100, new long[] { 1, -1 }));
+        assertThrows(ValidationException.class, () -> SplitAllocator.allocate(100, new long[0]));
+    }
+}
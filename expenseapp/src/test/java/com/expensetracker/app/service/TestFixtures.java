@@ -0,0 +1,95 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.dto.AddExpenseRequest;
+import com.expensetracker.app.dto.ExpenseSplitDetail;
+import com.expensetracker.app.entity.Expense;
+import com.expensetracker.app.entity.ExpenseSplit;
+import com.expensetracker.app.entity.Group;
+import com.expensetracker.app.entity.User;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Users, groups, expenses and expense requests shared by the service tests.
+ * Amounts are written as strings, "30.00", to keep the tests readable.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Persists a user named 'username' with the email username@example.com.
+     */
+    static User user(TestEntityManager entityManager, String username) {
+        return entityManager.persist(User.builder()
+                .username(username).email(username + "@example.com").password("x").build());
+    }
+
+    /**
+     * Persists a group of the given members, created by the first one.
+     */
+    static Group group(TestEntityManager entityManager, String name, User... members) {
+        return entityManager.persist(Group.builder()
+                .name(name).createdBy(members[0]).members(Set.of(members)).build());
+    }
+
+    /**
+     * An unsaved expense of the group paid by 'paidBy', split into the given [member, owed, paid] triples.
+     */
+    static Expense expense(Group group, String description, String amount, String paidBy,
+                           OffsetDateTime createdAt, String[]... splits) {
+        Expense expense = Expense.builder()
+                .group(group)
+                .amount(new BigDecimal(amount))
+                .description(description)
+                .paidByUsername(paidBy)
+                .createdAt(createdAt)
+                .build();
+        List<ExpenseSplit> rows = new ArrayList<>();
+        for (String[] split : splits) {
+            rows.add(split(expense, split[0], split[1], split[2]));
+        }
+        expense.setSplits(rows);
+        return expense;
+    }
+
+    /**
+     * A split of 'expense' whose net balance is paid minus owed.
+     */
+    static ExpenseSplit split(Expense expense, String member, String owed, String paid) {
+        BigDecimal owedAmount = new BigDecimal(owed);
+        BigDecimal paidAmount = new BigDecimal(paid);
+        return ExpenseSplit.builder()
+                .expense(expense).memberUsername(member)
+                .owedAmount(owedAmount).paidAmount(paidAmount)
+                .netBalance(paidAmount.subtract(owedAmount))
+                .build();
+    }
+
+    /**
+     * A [member, owed, paid] triple for {@link #expense}.
+     */
+    static String[] share(String member, String owed, String paid) {
+        return new String[] { member, owed, paid };
+    }
+
+    /**
+     * A request for a "Groceries" expense paid by 'paidBy'.
+     */
+    static AddExpenseRequest request(String amount, String paidBy, ExpenseSplitDetail... details) {
+        return new AddExpenseRequest(new BigDecimal(amount), "Groceries", paidBy, List.of(details));
+    }
+
+    /**
+     * A split of a request; 'owed' may be null for strategies that compute it on the server.
+     */
+    static ExpenseSplitDetail detail(String member, String owed, String paid) {
+        return new ExpenseSplitDetail(member, owed != null ? new BigDecimal(owed) : null, new BigDecimal(paid));
+    }
+}
@@ -0,0 +1,79 @@
+package com.expensetracker.app.service;
+
+import com.expensetracker.app.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(UserIdCache.class)
+class UserIdCacheTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserIdCache userIdCache;
+
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        userIdCache.clear();
+        alice = entityManager.persist(User.builder()
+                .username("Alice").email("alice@example.com").password("x").build());
+        entityManager.flush();
+    }
+
+    @Test
+    void repeatedResolutionCostsNoQuery() {
+        assertEquals(Optional.of(alice.getId()), userIdCache.findUserId("alice"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertEquals(Optional.of(alice.getId()), userIdCache.findUserId(" ALICE "));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void signupWritesThrough() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userIdCache.put("Bob", 42L);
+
+        assertEquals(Optional.of(42L), userIdCache.findUserId("bob"));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void primitiveLookupReportsUnknownUsers() {
+        assertEquals(alice.getId(), userIdCache.userIdOrUnknown("Alice"));
+        assertEquals(UserIdCache.UNKNOWN, userIdCache.userIdOrUnknown("nobody"));
+        assertEquals(UserIdCache.UNKNOWN, userIdCache.userIdOrUnknown("  "));
+    }
+
+    @Test
+    void unknownUsernamesAreNotCached() {
+        assertEquals(Optional.empty(), userIdCache.findUserId("carol"));
+        User carol = entityManager.persist(User.builder()
+                .username("carol").email("carol@example.com").password("x").build());
+        entityManager.flush();
+
+        assertEquals(Optional.of(carol.getId()), userIdCache.findUserId("carol"));
+    }
+}